@@ -0,0 +1,141 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Loads a flat binary booking export and schedules it with RoomScheduler without building int[][] rows.
+// The file is a sequence of big-endian int pairs (start, end), 8 bytes per class, as written by
+// DataOutputStream. The pairs are sorted off-heap with an LSD radix sort over memory-mapped scratch
+// files, so the heap only holds the radix histograms and the room heap, whatever the input size.
+public class BinaryScheduleLoader {
+    private static final int RADIX_BITS = 16;                  // Bits sorted per radix pass
+    private static final int RADIX = 1 << RADIX_BITS;          // Buckets per pass
+    private static final int PASSES = Long.SIZE / RADIX_BITS;  // Passes needed for a 64-bit key
+
+    // Find the most used classroom for the classes stored in 'file'
+    public static int mostUsedClassroom(int n, Path file) throws IOException {
+        return schedule(n, file).mostUsedRoom();
+    }
+
+    // Schedule every class stored in 'file' and return the scheduler with its usage counters
+    public static RoomScheduler schedule(int n, Path file) throws IOException {
+        RoomScheduler scheduler = new RoomScheduler(n);
+        try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = input.size();
+            if (size % Long.BYTES != 0) {
+                throw new IOException("Schedule file " + file + " is not a whole number of (start, end) pairs");
+            }
+            long count = size / Long.BYTES;
+            if (count == 0) {
+                return scheduler;
+            }
+
+            try (FileChannel scratchA = openScratch(); FileChannel scratchB = openScratch()) {
+                MappedLongs pairs = new MappedLongs(input, FileChannel.MapMode.READ_ONLY, count);
+                MappedLongs src = new MappedLongs(scratchA, FileChannel.MapMode.READ_WRITE, count);
+                MappedLongs dst = new MappedLongs(scratchB, FileChannel.MapMode.READ_WRITE, count);
+
+                // First pass: turn every pair into an unsigned sort key and count all digits at once
+                long[][] histograms = new long[PASSES][RADIX];
+                for (long i = 0; i < count; i++) {
+                    long pair = pairs.get(i);
+                    long key = RoomScheduler.packClass((int) (pair >> 32), (int) pair) ^ Long.MIN_VALUE;
+                    src.put(i, key);
+                    for (int pass = 0; pass < PASSES; pass++) {
+                        histograms[pass][digit(key, pass)]++;
+                    }
+                }
+
+                // One stable scatter per digit, least significant first
+                long[] offsets = new long[RADIX];
+                for (int pass = 0; pass < PASSES; pass++) {
+                    long[] histogram = histograms[pass];
+                    // Skip the pass when every key has the same digit, e.g. the high bits of small times
+                    if (histogram[digit(src.get(0), pass)] == count) {
+                        continue;
+                    }
+                    long offset = 0;
+                    for (int d = 0; d < RADIX; d++) {
+                        offsets[d] = offset;
+                        offset += histogram[d];
+                    }
+                    for (long i = 0; i < count; i++) {
+                        long key = src.get(i);
+                        dst.put(offsets[digit(key, pass)]++, key);
+                    }
+                    MappedLongs swap = src;
+                    src = dst;
+                    dst = swap;
+                }
+
+                // Feed the sorted classes straight into the assignment loop
+                for (long i = 0; i < count; i++) {
+                    long key = src.get(i) ^ Long.MIN_VALUE;
+                    scheduler.schedule(RoomScheduler.unpackStart(key), RoomScheduler.unpackEnd(key));
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    // Write 'classes' in the binary format read by schedule()
+    public static void writeClasses(Path file, int[][] classes) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (int[] cls : classes) {
+                out.writeInt(cls[0]);
+                out.writeInt(cls[1]);
+            }
+        }
+    }
+
+    private static int digit(long key, int pass) {
+        return (int) (key >>> (pass * RADIX_BITS)) & (RADIX - 1);
+    }
+
+    // Temporary file that is removed as soon as its channel is closed
+    private static FileChannel openScratch() throws IOException {
+        Path path = Files.createTempFile("schedule", ".keys");
+        return FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    // A long array backed by a file, mapped in 1 GiB segments so it can exceed 2^31 bytes
+    private static class MappedLongs {
+        private static final int SEGMENT_SHIFT = 27;  // 2^27 longs per segment
+        private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+        private final MappedByteBuffer[] segments;
+
+        MappedLongs(FileChannel channel, FileChannel.MapMode mode, long length) throws IOException {
+            int segmentCount = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long first = (long) s << SEGMENT_SHIFT;
+                long longs = Math.min(length - first, 1L << SEGMENT_SHIFT);
+                segments[s] = channel.map(mode, first * Long.BYTES, longs * Long.BYTES);
+            }
+        }
+
+        long get(long index) {
+            return segments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & SEGMENT_MASK) << 3);
+        }
+
+        void put(long index, long value) {
+            segments[(int) (index >>> SEGMENT_SHIFT)].putLong((int) (index & SEGMENT_MASK) << 3, value);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("classes", ".bin");
+        try {
+            int[][] classes = { { 1, 20 }, { 2, 10 }, { 3, 5 }, { 4, 9 }, { 6, 8 } };
+            writeClasses(file, classes);
+            System.out.println(mostUsedClassroom(3, file)); // Output: 1
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
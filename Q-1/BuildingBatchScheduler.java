@@ -0,0 +1,139 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Schedules many independent buildings in parallel on a fork-join pool.
+// Each building is a separate RoomScheduler run, so buildings never share state and the
+// batch scales with the number of cores. Every building gets a full UtilizationReport.
+public class BuildingBatchScheduler {
+
+    // One scheduling instance: 'n' rooms and the classes booked into them
+    public static class Building {
+        final int n;
+        final int[][] classes;
+
+        public Building(int n, int[][] classes) {
+            this.n = n;
+            this.classes = classes;
+        }
+    }
+
+    // Result of scheduling one building
+    public static class UtilizationReport {
+        public final int mostUsedRoom;     // Room that hosted the most classes, lowest index on ties
+        public final int[] roomUsage;      // Number of classes hosted by each room
+        public final long totalDelay;      // Sum of all delays between requested and actual start
+        public final long maxDelay;        // Largest single delay
+        public final int peakConcurrency;  // Most classes running at the same time
+
+        UtilizationReport(int mostUsedRoom, int[] roomUsage, long totalDelay, long maxDelay, int peakConcurrency) {
+            this.mostUsedRoom = mostUsedRoom;
+            this.roomUsage = roomUsage;
+            this.totalDelay = totalDelay;
+            this.maxDelay = maxDelay;
+            this.peakConcurrency = peakConcurrency;
+        }
+
+        @Override
+        public String toString() {
+            return "mostUsedRoom=" + mostUsedRoom + ", roomUsage=" + Arrays.toString(roomUsage)
+                    + ", totalDelay=" + totalDelay + ", maxDelay=" + maxDelay + ", peakConcurrency=" + peakConcurrency;
+        }
+    }
+
+    // Schedule every building on the common fork-join pool
+    public static UtilizationReport[] scheduleAll(Building[] buildings) {
+        return scheduleAll(buildings, ForkJoinPool.commonPool());
+    }
+
+    // Schedule every building on 'pool'; reports[i] belongs to buildings[i]
+    public static UtilizationReport[] scheduleAll(Building[] buildings, ForkJoinPool pool) {
+        UtilizationReport[] reports = new UtilizationReport[buildings.length];
+        if (buildings.length > 0) {
+            pool.invoke(new ScheduleTask(buildings, reports, 0, buildings.length));
+        }
+        return reports;
+    }
+
+    // Schedule a single building and collect its report
+    public static UtilizationReport report(int n, int[][] classes) {
+        long[] keys = new long[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            keys[i] = RoomScheduler.packClass(classes[i][0], classes[i][1]);
+        }
+        Arrays.sort(keys);
+
+        RoomScheduler scheduler = new RoomScheduler(n);
+        // Min-heap of finish times of the classes that are running at the current start time.
+        // Actual starts never decrease, so finished classes can be dropped from the top.
+        long[] running = new long[n];
+        int runningSize = 0;
+        long totalDelay = 0;
+        long maxDelay = 0;
+        int peakConcurrency = 0;
+
+        for (long key : keys) {
+            int start = RoomScheduler.unpackStart(key);
+            int end = RoomScheduler.unpackEnd(key);
+            scheduler.schedule(start, end);
+            long actualStart = scheduler.actualStart();
+
+            long delay = actualStart - start;
+            totalDelay += delay;
+            maxDelay = Math.max(maxDelay, delay);
+
+            while (runningSize > 0 && running[0] <= actualStart) {
+                runningSize = LongHeap.pop(running, runningSize);
+            }
+            runningSize = LongHeap.push(running, runningSize, actualStart + ((long) end - start));
+            peakConcurrency = Math.max(peakConcurrency, runningSize);
+        }
+
+        int[] roomUsage = new int[n];
+        for (int i = 0; i < n; i++) {
+            roomUsage[i] = scheduler.usage(i);
+        }
+        return new UtilizationReport(scheduler.mostUsedRoom(), roomUsage, totalDelay, maxDelay, peakConcurrency);
+    }
+
+    // Splits the building range in halves until each task owns a single building
+    private static class ScheduleTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Building[] buildings;
+        private final UtilizationReport[] reports;
+        private final int from;
+        private final int to;
+
+        ScheduleTask(Building[] buildings, UtilizationReport[] reports, int from, int to) {
+            this.buildings = buildings;
+            this.reports = reports;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                reports[from] = report(buildings[from].n, buildings[from].classes);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScheduleTask(buildings, reports, from, mid), new ScheduleTask(buildings, reports, mid, to));
+        }
+    }
+
+    public static void main(String[] args) {
+        Building[] buildings = {
+            new Building(2, new int[][] { { 0, 10 }, { 1, 5 }, { 2, 7 }, { 3, 4 } }),
+            new Building(3, new int[][] { { 1, 20 }, { 2, 10 }, { 3, 5 }, { 4, 9 }, { 6, 8 } })
+        };
+        UtilizationReport[] reports = scheduleAll(buildings);
+        for (UtilizationReport report : reports) {
+            System.out.println(report);
+        }
+        // Output:
+        // mostUsedRoom=0, roomUsage=[2, 2], totalDelay=10, maxDelay=7, peakConcurrency=2
+        // mostUsedRoom=1, roomUsage=[1, 2, 2], totalDelay=5, maxDelay=4, peakConcurrency=3
+    }
+}
@@ -68,5 +68,19 @@ class ClassSchedule {
         int n2 = 3; // Number of classrooms
         int[][] classes2 = { { 1, 20 }, { 2, 10 }, { 3, 5 }, { 4, 9 }, { 6, 8 } }; // Array of classes with start and end times
         System.out.println(mostUsedClassroom(n2, classes2)); // Output: 1, as classroom 1 is used the most
+
+        // Same examples on the primitive-heap engine
+        int[][] classes3 = { { 0, 10 }, { 1, 5 }, { 2, 7 }, { 3, 4 } };
+        System.out.println(RoomScheduler.mostUsedClassroom(n1, classes3)); // Output: 0
+        int[][] classes4 = { { 1, 20 }, { 2, 10 }, { 3, 5 }, { 4, 9 }, { 6, 8 } };
+        System.out.println(RoomScheduler.mostUsedClassroom(n2, classes4)); // Output: 1
+
+        // Feed the second example one class at a time, as bookings arrive
+        RoomScheduler live = new RoomScheduler(n2);
+        for (int[] cls : classes4) {
+            int room = live.schedule(cls[0], cls[1]);
+            System.out.println("class " + Arrays.toString(cls) + " -> room " + room + " at " + live.actualStart());
+        }
+        System.out.println(live.mostUsedRoom()); // Output: 1
     }
 }
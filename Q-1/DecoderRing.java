@@ -20,6 +20,60 @@ public class DecoderRing {
         return new String(chars);
     }
 
+    // Method to decipher the message in O(n + q) time using a difference array of net shifts.
+    // Each shift is {start, end, direction} as in decipherMessage, with an optional fourth value
+    // giving the number of positions to shift (1 when missing). decipherMessage stays as the reference.
+    public static String decipherMessageFast(String s, int[][] shifts) {
+        char[] chars = s.toCharArray();
+        int[] net = netShifts(chars.length, shifts);
+
+        // Rotate every character once by its net shift
+        for (int i = 0; i < chars.length; i++) {
+            if (net[i] != 0) {
+                chars[i] = shiftChar(chars[i], net[i]);
+            }
+        }
+        return new String(chars);
+    }
+
+    // Helper method to compute the net forward shift of every position, folded into [0, 25]
+    static int[] netShifts(int length, int[][] shifts) {
+        // diff[i] holds the change of the net shift between position i - 1 and position i
+        int[] diff = new int[length + 1];
+        for (int[] shift : shifts) {
+            int amount = shiftAmount(shift);
+            diff[shift[0]] = (diff[shift[0]] + amount) % 26;
+            diff[shift[1] + 1] = (diff[shift[1] + 1] + 26 - amount) % 26;
+        }
+
+        // One prefix-sum pass turns the differences into net shifts
+        int[] net = new int[length];
+        int running = 0;
+        for (int i = 0; i < length; i++) {
+            running = (running + diff[i]) % 26;
+            net[i] = running;
+        }
+        return net;
+    }
+
+    // Helper method to turn a shift operation into a forward shift in [0, 25]
+    static int shiftAmount(int[] shift) {
+        int amount = shift.length > 3 ? shift[3] % 26 : 1;
+        if (shift[2] != 1) {
+            amount = -amount; // Any direction other than 1 shifts backwards, as in decipherMessage
+        }
+        return (amount + 26) % 26;
+    }
+
+    // Same for a shift row whose start and end are long positions
+    static int shiftAmount(long[] shift) {
+        int amount = shift.length > 3 ? (int) (shift[3] % 26) : 1;
+        if (shift[2] != 1) {
+            amount = -amount;
+        }
+        return (amount + 26) % 26;
+    }
+
     // Helper method to shift a character by the specified amount
     private static char shiftChar(char c, int shift) {
         int base = 'a';
@@ -35,5 +89,11 @@ public class DecoderRing {
         String s1 = "hello";
         int[][] shifts1 = {{0, 1, 1}, {2, 3, 0}, {0, 2, 1}};
         System.out.println(decipherMessage(s1, shifts1));  // Output: jglko
+        System.out.println(decipherMessageFast(s1, shifts1));  // Output: jglko
+
+        // Test case 2: shift amounts other than 1
+        String s2 = "hello";
+        int[][] shifts2 = {{0, 4, 1, 3}, {1, 2, 0, 27}};
+        System.out.println(decipherMessageFast(s2, shifts2));  // Output: kgnor
     }
 }
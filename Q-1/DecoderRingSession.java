@@ -0,0 +1,97 @@
+// Stateful DecoderRing that mixes shift operations with reads of the decoded text.
+// Net shifts are kept as a difference array behind a Fenwick tree, so a range shift and a
+// single character read cost O(log n), and reading [l, r] costs O(log n + length).
+public class DecoderRingSession {
+    private final char[] message; // The original message, never modified
+    private final int[] diff;     // diff[i] is the change of the net shift at position i, in [0, 25]
+    private final int[] tree;     // Fenwick tree over 'diff', 1-based, entries folded into [0, 25]
+
+    public DecoderRingSession(String message) {
+        this.message = message.toCharArray();
+        this.diff = new int[this.message.length];
+        this.tree = new int[this.message.length + 1];
+    }
+
+    // Apply a shift {start, end, direction[, amount]} in the same format as DecoderRing.decipherMessageFast
+    public void shift(int[] shift) {
+        shift(shift[0], shift[1], DecoderRing.shiftAmount(shift));
+    }
+
+    // Shift every character in [start, end] forward by 'amount' positions (negative shifts backwards)
+    public void shift(int start, int end, int amount) {
+        if (start < 0 || end >= message.length || start > end) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + "] for length " + message.length);
+        }
+        int forward = ((amount % 26) + 26) % 26;
+        add(start, forward);
+        if (end + 1 < message.length) {
+            add(end + 1, 26 - forward);
+        }
+    }
+
+    // Decoded character at 'index'
+    public char charAt(int index) {
+        return rotate(message[index], netShift(index));
+    }
+
+    // Decoded text of the inclusive range [start, end]
+    public String substring(int start, int end) {
+        if (start < 0 || end >= message.length || start > end) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + "] for length " + message.length);
+        }
+        char[] decoded = new char[end - start + 1];
+        // One tree query for the first position, then walk the raw differences
+        int net = netShift(start);
+        for (int i = start; i <= end; i++) {
+            if (i > start) {
+                net = (net + diff[i]) % 26;
+            }
+            decoded[i - start] = rotate(message[i], net);
+        }
+        return new String(decoded);
+    }
+
+    public int length() {
+        return message.length;
+    }
+
+    @Override
+    public String toString() {
+        return message.length == 0 ? "" : substring(0, message.length - 1);
+    }
+
+    // Net forward shift at 'index', the prefix sum of 'diff'
+    private int netShift(int index) {
+        int sum = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum % 26;
+    }
+
+    // Add 'value' to diff[index] and to every tree node that covers it
+    private void add(int index, int value) {
+        diff[index] = (diff[index] + value) % 26;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] = (tree[i] + value) % 26;
+        }
+    }
+
+    private static char rotate(char c, int net) {
+        if (net == 0 || c < 'a' || c > 'z') {
+            return c;
+        }
+        int offset = c - 'a' + net;
+        return (char) ('a' + (offset >= 26 ? offset - 26 : offset));
+    }
+
+    public static void main(String[] args) {
+        DecoderRingSession session = new DecoderRingSession("hello");
+        session.shift(new int[] {0, 1, 1});
+        System.out.println(session.substring(0, 2)); // Output: ifl
+        session.shift(new int[] {2, 3, 0});
+        session.shift(new int[] {0, 2, 1});
+        System.out.println(session.charAt(4));       // Output: o
+        System.out.println(session);                 // Output: jglko
+    }
+}
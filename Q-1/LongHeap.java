@@ -0,0 +1,43 @@
+// Binary min-heap operations on a caller-owned long[] holding heap[0..size). The caller keeps the
+// size and grows the array, so a heap of packed keys costs no objects and no boxing.
+final class LongHeap {
+    private LongHeap() {
+    }
+
+    // Push 'value' onto the min-heap stored in heap[0..size) and return the new size
+    static int push(long[] heap, int size, long value) {
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+        return size + 1;
+    }
+
+    // Remove the smallest value from the min-heap stored in heap[0..size) and return the new size
+    static int pop(long[] heap, int size) {
+        long last = heap[--size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return size;
+    }
+}
@@ -0,0 +1,172 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+// Multi-core DecoderRing for large ASCII messages held in a byte[].
+// The net shift of every position is built with a difference array and a blocked parallel
+// prefix sum, then the rotation pass runs block by block on the common fork-join pool.
+// The rotation uses DecoderRingVectorKernel when it was built (see Q-1/vector) and the JVM runs with
+// --add-modules jdk.incubator.vector, and a scalar loop otherwise. The kernel is only reached through a
+// MethodHandle, so this class compiles and runs with plain javac and java.
+// Bytes outside 'a'..'z' are left unchanged.
+public class ParallelDecoderRing {
+    private static final int BLOCK_SIZE = 1 << 20; // Bytes handled by one parallel task
+
+    // DecoderRingVectorKernel.rotate, or null when the kernel or the jdk.incubator.vector module is missing
+    private static final MethodHandle VECTOR_ROTATE = findVectorKernel();
+    static final boolean VECTOR_AVAILABLE = VECTOR_ROTATE != null;
+
+    private static MethodHandle findVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            Class<?> kernel = Class.forName("DecoderRingVectorKernel");
+            return MethodHandles.lookup().findStatic(kernel, "rotate",
+                    MethodType.methodType(void.class, byte[].class, byte[].class, int.class, int.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null; // Kernel not built
+        }
+    }
+
+    // Decipher 'message' in place; shifts use the {start, end, direction[, amount]} format of DecoderRing
+    public static void decipher(byte[] message, int[][] shifts) {
+        byte[] net = netShifts(message.length, shifts);
+        int blocks = blockCount(message.length);
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int from = b * BLOCK_SIZE;
+            int to = Math.min(message.length, from + BLOCK_SIZE);
+            rotate(message, net, from, to);
+        });
+    }
+
+    // Net forward shift of every position in [0, 25], computed with a parallel prefix sum
+    static byte[] netShifts(int length, int[][] shifts) {
+        // Scatter the shift ranges into a difference array, folded modulo 26
+        byte[] net = new byte[length];
+        for (int[] shift : shifts) {
+            int amount = DecoderRing.shiftAmount(shift);
+            net[shift[0]] = (byte) ((net[shift[0]] + amount) % 26);
+            if (shift[1] + 1 < length) {
+                net[shift[1] + 1] = (byte) ((net[shift[1] + 1] + 26 - amount) % 26);
+            }
+        }
+
+        // First pass: every block sums its own differences
+        int blocks = blockCount(length);
+        int[] blockOffsets = new int[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int sum = 0;
+            for (int i = b * BLOCK_SIZE, to = Math.min(length, i + BLOCK_SIZE); i < to; i++) {
+                sum += net[i];
+            }
+            blockOffsets[b] = sum % 26;
+        });
+
+        // Turn the block sums into the net shift in front of each block
+        int carry = 0;
+        for (int b = 0; b < blocks; b++) {
+            int sum = blockOffsets[b];
+            blockOffsets[b] = carry;
+            carry = (carry + sum) % 26;
+        }
+
+        // Second pass: every block runs its own prefix sum starting from its offset
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int running = blockOffsets[b];
+            for (int i = b * BLOCK_SIZE, to = Math.min(length, i + BLOCK_SIZE); i < to; i++) {
+                running += net[i];
+                if (running >= 26) {
+                    running -= 26;
+                }
+                net[i] = (byte) running;
+            }
+        });
+        return net;
+    }
+
+    // Rotate message[from, to) with the vector kernel when possible
+    static void rotate(byte[] message, byte[] net, int from, int to) {
+        if (VECTOR_AVAILABLE) {
+            rotateVector(message, net, from, to);
+        } else {
+            rotateScalar(message, net, from, to);
+        }
+    }
+
+    private static void rotateVector(byte[] message, byte[] net, int from, int to) {
+        try {
+            VECTOR_ROTATE.invokeExact(message, net, from, to);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t); // rotate() declares no checked exceptions
+        }
+    }
+
+    // Scalar rotation, also used for the tail the vector kernel cannot fill a full lane with
+    static void rotateScalar(byte[] message, byte[] net, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = message[i];
+            if (b >= 'a' && b <= 'z') {
+                int offset = b - 'a' + net[i];
+                message[i] = (byte) ('a' + (offset >= 26 ? offset - 26 : offset));
+            }
+        }
+    }
+
+    private static int blockCount(int length) {
+        return (length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    // Throughput benchmark of the rotation pass: scalar loop against the vector kernel.
+    // Build Q-1/vector and run with --add-modules jdk.incubator.vector to include the vector numbers.
+    public static void main(String[] args) {
+        byte[] hello = "hello".getBytes();
+        decipher(hello, new int[][] {{0, 1, 1}, {2, 3, 0}, {0, 2, 1}});
+        System.out.println(new String(hello)); // Output: jglko
+
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 64 << 20;
+        int rounds = 10;
+        Random random = new Random(42);
+        byte[] message = new byte[size];
+        for (int i = 0; i < size; i++) {
+            message[i] = (byte) ('a' + random.nextInt(26));
+        }
+        int[][] shifts = new int[1_000_000][];
+        for (int i = 0; i < shifts.length; i++) {
+            int start = random.nextInt(size);
+            shifts[i] = new int[] {start, start + random.nextInt(size - start), random.nextInt(2), 1 + random.nextInt(25)};
+        }
+
+        long begin = System.nanoTime();
+        byte[] net = netShifts(size, shifts);
+        System.out.printf("net shifts: %.1f ms%n", (System.nanoTime() - begin) / 1e6);
+
+        byte[] scalar = message.clone();
+        System.out.printf("scalar: %.2f GB/s%n", throughput(size, rounds, () -> rotateScalar(scalar, net, 0, size)));
+        if (VECTOR_AVAILABLE) {
+            byte[] vector = message.clone();
+            System.out.printf("vector: %.2f GB/s%n", throughput(size, rounds, () -> rotateVector(vector, net, 0, size)));
+            System.out.println("results match: " + Arrays.equals(scalar, vector));
+        } else {
+            System.out.println("vector: unavailable, build Q-1/vector and run with --add-modules jdk.incubator.vector");
+        }
+        byte[] parallel = message.clone();
+        System.out.printf("parallel decipher: %.2f GB/s%n", throughput(size, 1, () -> decipher(parallel, shifts)));
+    }
+
+    // Run 'pass' once to warm up, then 'rounds' times, and return the average GB/s over 'bytes'
+    private static double throughput(int bytes, int rounds, Runnable pass) {
+        pass.run();
+        long begin = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            pass.run();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return (double) bytes * rounds / seconds / 1e9;
+    }
+}
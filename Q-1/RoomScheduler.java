@@ -0,0 +1,169 @@
+import java.util.Arrays;
+
+// Scheduling engine for ClassSchedule that only works on a primitive heap.
+// Every room sits in one long min-heap keyed by the packed value (freeAt << roomBits) | room,
+// which is the same (end_time, room_number) order ClassSchedule uses, so assigning a class
+// allocates nothing, all times are 64-bit and the chosen rooms match mostUsedClassroom.
+public class RoomScheduler {
+    private final int n;            // Number of rooms
+    private final int roomBits;     // Low bits of a packed entry that hold the room index
+    private final long roomMask;    // Mask to extract the room index from a packed entry
+    private final long maxTime;     // Largest time that still fits above the room bits
+    private final long minTime;     // Smallest time that still fits above the room bits
+
+    private final long[] rooms;     // Min-heap of packed (freeAt, room) entries, always holds all n rooms
+    private final int[] roomUsage;  // How many classes each room has hosted
+
+    private long scheduled;         // Number of classes scheduled so far
+    private long lastStart;         // Requested start of the last class, used to enforce ordering
+    private long lastEnd;           // Requested end of the last class
+    private long actualStart;       // Start of the last class after any delay
+
+    // Create a scheduler with 'n' rooms, all of them free from time 0
+    public RoomScheduler(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Number of rooms must be positive: " + n);
+        }
+        this.n = n;
+        this.roomBits = n == 1 ? 0 : 32 - Integer.numberOfLeadingZeros(n - 1);
+        this.roomMask = (1L << roomBits) - 1;
+        this.maxTime = Long.MAX_VALUE >> roomBits;
+        this.minTime = Long.MIN_VALUE >> roomBits;
+        this.rooms = new long[n];
+        this.roomUsage = new int[n];
+        // Entries (0, i) in increasing room order already form a valid min-heap
+        for (int i = 0; i < n; i++) {
+            rooms[i] = i;
+        }
+    }
+
+    // Assign a class to a room and return the room index.
+    // Classes must arrive in order of start time (then end time), which is the order
+    // mostUsedClassroom sorts them into, so a live feed gets the same rooms as a batch run.
+    // The start after any delay is available from actualStart() until the next call.
+    public int schedule(long start, long end) {
+        if (scheduled > 0 && (start < lastStart || (start == lastStart && end < lastEnd))) {
+            throw new IllegalArgumentException("Class [" + start + ", " + end + "] arrived after [" + lastStart + ", " + lastEnd + "]");
+        }
+        lastStart = start;
+        lastEnd = end;
+
+        long entry = rooms[0];
+        int room = (int) (entry & roomMask);
+        long freeAt = entry >> roomBits;
+
+        long finish = end;
+        actualStart = start;
+        if (freeAt > start) {
+            // No room is free at the start time: delay the class and keep its duration
+            finish = Math.addExact(freeAt, end - start);
+            actualStart = freeAt;
+        }
+
+        // The root is replaced in place, so the heap never grows or shrinks
+        replaceTop(pack(finish, room));
+        roomUsage[room]++;
+        scheduled++;
+        return room;
+    }
+
+    // Schedule a batch of classes that continues the current feed.
+    // The room and delayed start of classes[i] are written to assignedRooms[i] and starts[i].
+    public void scheduleBatch(int[][] classes, int[] assignedRooms, long[] starts) {
+        if (assignedRooms.length < classes.length || starts.length < classes.length) {
+            throw new IllegalArgumentException("Output arrays are shorter than the batch");
+        }
+        for (int i = 0; i < classes.length; i++) {
+            assignedRooms[i] = schedule(classes[i][0], classes[i][1]);
+            starts[i] = actualStart;
+        }
+    }
+
+    // Start of the most recently scheduled class after any delay
+    public long actualStart() {
+        return actualStart;
+    }
+
+    // Number of classes hosted so far by 'room'
+    public int usage(int room) {
+        return roomUsage[room];
+    }
+
+    // Number of classes scheduled so far
+    public long scheduled() {
+        return scheduled;
+    }
+
+    // Number of rooms managed by this scheduler
+    public int rooms() {
+        return n;
+    }
+
+    // Room that hosted the most classes, lowest index on ties
+    public int mostUsedRoom() {
+        int best = 0;
+        for (int i = 1; i < n; i++) {
+            if (roomUsage[i] > roomUsage[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Same contract as ClassSchedule.mostUsedClassroom, without mutating 'classes'.
+    // The classes are sorted as packed (start, end) longs instead of int[] rows with a comparator.
+    public static int mostUsedClassroom(int n, int[][] classes) {
+        long[] keys = new long[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            keys[i] = packClass(classes[i][0], classes[i][1]);
+        }
+        Arrays.sort(keys);
+
+        RoomScheduler scheduler = new RoomScheduler(n);
+        for (long key : keys) {
+            scheduler.schedule(unpackStart(key), unpackEnd(key));
+        }
+        return scheduler.mostUsedRoom();
+    }
+
+    // Pack a class so that signed long order equals (start, end) order
+    static long packClass(int start, int end) {
+        return ((long) start << 32) | ((end ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    static int unpackStart(long key) {
+        return (int) (key >> 32);
+    }
+
+    static int unpackEnd(long key) {
+        return (int) key ^ Integer.MIN_VALUE;
+    }
+
+    // Pack a room so that the heap orders by the time it frees up, then by room index
+    private long pack(long time, int room) {
+        if (time > maxTime || time < minTime) {
+            throw new ArithmeticException("Time " + time + " does not fit next to " + roomBits + " room bits");
+        }
+        return (time << roomBits) | room;
+    }
+
+    // Overwrite the smallest entry and sift it down to restore the heap
+    private void replaceTop(long entry) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n && rooms[child + 1] < rooms[child]) {
+                child++;
+            }
+            if (entry <= rooms[child]) {
+                break;
+            }
+            rooms[i] = rooms[child];
+            i = child;
+        }
+        rooms[i] = entry;
+    }
+}
@@ -0,0 +1,135 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Deciphers messages that do not fit in memory by streaming them through a fixed-size buffer.
+// The shift operations are swept in order of their start position while a running net shift is kept,
+// so besides the shift list itself only the chunk buffer and the currently active shifts are held.
+// Shift rows use the same {start, end, direction[, amount]} format as DecoderRing.decipherMessageFast;
+// the long[][] overloads take start and end as long positions, so shifts can reach past 2 GiB.
+// Bytes outside 'a'..'z' (line breaks, for example) are copied through unchanged.
+public class StreamingDecoderRing {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+    private static final int AMOUNT_BITS = 5; // A folded shift amount in [0, 25] fits in 5 bits
+
+    // Decipher the file 'input' into the file 'output'
+    public static long decipher(Path input, Path output, int[][] shifts) throws IOException {
+        return decipher(input, output, toLongRows(shifts));
+    }
+
+    // Decipher the file 'input' into the file 'output' with shifts over long positions
+    public static long decipher(Path input, Path output, long[][] shifts) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            return decipher(in, out, shifts, DEFAULT_CHUNK_SIZE);
+        }
+    }
+
+    // Decipher everything readable from 'in' into 'out', 'chunkSize' bytes at a time.
+    // Returns the number of bytes written.
+    public static long decipher(ReadableByteChannel in, WritableByteChannel out, int[][] shifts, int chunkSize)
+            throws IOException {
+        return decipher(in, out, toLongRows(shifts), chunkSize);
+    }
+
+    // Same with shifts over long positions
+    public static long decipher(ReadableByteChannel in, WritableByteChannel out, long[][] shifts, int chunkSize)
+            throws IOException {
+        // Order the shifts by start position
+        long[][] byStart = shifts.clone();
+        Arrays.sort(byStart, Comparator.comparingLong(shift -> shift[0]));
+
+        // Min-heap of the active shifts as packed (end, amount) longs; positions stay below 2^58
+        long[] active = new long[16];
+        int activeSize = 0;
+        int nextShift = 0;  // Next shift in start order that has not been activated yet
+        int net = 0;        // Net forward shift at the current position, in [0, 25]
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(chunkSize);
+        long position = 0;
+        while (in.read(buffer) != -1) {
+            buffer.flip();
+            int limit = buffer.limit();
+            int i = 0;
+            while (i < limit) {
+                // Activate shifts starting here and retire shifts that ended before this position
+                while (nextShift < byStart.length && byStart[nextShift][0] <= position) {
+                    long[] shift = byStart[nextShift++];
+                    if (shift[1] < position) {
+                        continue; // Empty range, it can never apply
+                    }
+                    int amount = DecoderRing.shiftAmount(shift);
+                    if (activeSize == active.length) {
+                        active = Arrays.copyOf(active, activeSize * 2);
+                    }
+                    activeSize = LongHeap.push(active, activeSize, (shift[1] << AMOUNT_BITS) | amount);
+                    net = (net + amount) % 26;
+                }
+                while (activeSize > 0 && (active[0] >> AMOUNT_BITS) < position) {
+                    int amount = (int) (active[0] & ((1 << AMOUNT_BITS) - 1));
+                    activeSize = LongHeap.pop(active, activeSize);
+                    net = (net + 26 - amount) % 26;
+                }
+
+                // The net shift stays constant until the next shift starts or an active one ends
+                long nextEvent = Long.MAX_VALUE;
+                if (nextShift < byStart.length) {
+                    nextEvent = byStart[nextShift][0];
+                }
+                if (activeSize > 0) {
+                    nextEvent = Math.min(nextEvent, (active[0] >> AMOUNT_BITS) + 1);
+                }
+                int runEnd = (int) Math.min(limit, i + (nextEvent - position));
+
+                if (net != 0) {
+                    for (int j = i; j < runEnd; j++) {
+                        byte b = buffer.get(j);
+                        if (b >= 'a' && b <= 'z') {
+                            int offset = b - 'a' + net;
+                            buffer.put(j, (byte) ('a' + (offset >= 26 ? offset - 26 : offset)));
+                        }
+                    }
+                }
+                position += runEnd - i;
+                i = runEnd;
+            }
+
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+        return position;
+    }
+
+    private static long[][] toLongRows(int[][] shifts) {
+        long[][] rows = new long[shifts.length][];
+        for (int i = 0; i < shifts.length; i++) {
+            int[] shift = shifts[i];
+            long[] row = new long[shift.length];
+            for (int j = 0; j < shift.length; j++) {
+                row[j] = shift[j];
+            }
+            rows[i] = row;
+        }
+        return rows;
+    }
+
+    public static void main(String[] args) throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int[][] shifts = {{0, 1, 1}, {2, 3, 0}, {0, 2, 1}};
+        // A tiny chunk size forces the sweep to carry its state across chunk boundaries
+        decipher(Channels.newChannel(new ByteArrayInputStream("hello".getBytes())), Channels.newChannel(decoded), shifts, 2);
+        System.out.println(decoded); // Output: jglko
+    }
+}
@@ -0,0 +1,34 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD rotation pass for ParallelDecoderRing, built on the incubating Vector API.
+// It lives in its own source root so that the rest of Q-1 still compiles with plain javac. Build it
+// after the main sources, into the same output directory, and run with the module added:
+//   javac -d out Q-1/*.java
+//   javac --add-modules jdk.incubator.vector -cp out -d out Q-1/vector/*.java
+//   java --add-modules jdk.incubator.vector -cp out ParallelDecoderRing
+// ParallelDecoderRing looks this class up reflectively and falls back to its scalar loop when the
+// class is not on the class path or the module is missing.
+class DecoderRingVectorKernel {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    // Rotate every 'a'..'z' byte of message[from, to) forward by net[i], a value in [0, 25]
+    static void rotate(byte[] message, byte[] net, int from, int to) {
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            ByteVector chars = ByteVector.fromArray(SPECIES, message, i);
+            ByteVector shifts = ByteVector.fromArray(SPECIES, net, i);
+            VectorMask<Byte> letters = chars.compare(VectorOperators.GE, (byte) 'a')
+                    .and(chars.compare(VectorOperators.LE, (byte) 'z'));
+
+            // Work on offsets in [0, 50] so nothing overflows a signed byte, then wrap back into [0, 25]
+            ByteVector offsets = chars.sub((byte) 'a').add(shifts);
+            offsets = offsets.sub((byte) 26, offsets.compare(VectorOperators.GE, (byte) 26));
+            chars.blend(offsets.add((byte) 'a'), letters).intoArray(message, i);
+        }
+        ParallelDecoderRing.rotateScalar(message, net, i, to);
+    }
+}
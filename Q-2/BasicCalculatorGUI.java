@@ -4,24 +4,46 @@ import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.Stack;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.UIManager;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 public class BasicCalculatorGUI extends JFrame {
     private JTextField inputField;
     private JButton calculateButton;
     private JTextField resultField;
+    private JCheckBox liveCheckBox;
+
+    // Evaluation runs on one background thread so long expressions never block the event thread
+    private final ExecutorService evaluator = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "calculator-evaluator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pendingEvaluation;
+    private long evaluationId; // Only the result of the latest evaluation is shown
+
+    // Sub-expression values shared between evaluations
+    private final ExpressionCache cache = new ExpressionCache(4096);
+
+    // Restarted on every keystroke in live mode, fires once typing pauses
+    private final Timer debounceTimer = new Timer(250, e -> startEvaluation());
 
     public BasicCalculatorGUI() {
         setTitle("Calculator");
-        setSize(400, 300);
+        setSize(400, 340);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
         setLayout(new BorderLayout(10, 10));
@@ -40,7 +62,7 @@ public class BasicCalculatorGUI extends JFrame {
 
         // Main Panel
         JPanel panel = new JPanel();
-        panel.setLayout(new GridLayout(4, 1, 10, 10));
+        panel.setLayout(new GridLayout(6, 1, 10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         // Input Label and Field
@@ -54,6 +76,13 @@ public class BasicCalculatorGUI extends JFrame {
         inputField.setHorizontalAlignment(JTextField.CENTER);
         panel.add(inputField);
 
+        // Evaluate-as-you-type toggle
+        liveCheckBox = new JCheckBox("Evaluate as you type");
+        liveCheckBox.setFont(new Font("Arial", Font.PLAIN, 14));
+        panel.add(liveCheckBox);
+        debounceTimer.setRepeats(false);
+        inputField.getDocument().addDocumentListener(new LiveInputListener());
+
         // Calculate Button
         calculateButton = new JButton("Calculate");
         calculateButton.setFont(new Font("Arial", Font.BOLD, 18));
@@ -81,92 +110,59 @@ public class BasicCalculatorGUI extends JFrame {
     private class CalculateButtonListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            String expression = inputField.getText();
-            try {
-                int result = evaluateExpression(preprocessExpression(expression));
-                resultField.setText(String.valueOf(result));
-            } catch (Exception ex) {
-                resultField.setText("Error");
-            }
+            debounceTimer.stop();
+            startEvaluation();
         }
     }
 
-    private String preprocessExpression(String expression) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < expression.length(); i++) {
-            char c = expression.charAt(i);
-            sb.append(c);
-            if (c == ')' || Character.isDigit(c)) {
-                if (i + 1 < expression.length() && expression.charAt(i + 1) == '(') {
-                    sb.append('*');
-                }
-            }
+    private class LiveInputListener implements DocumentListener {
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            inputChanged();
         }
-        return sb.toString();
-    }
-
-    private int evaluateExpression(String expression) throws Exception {
-        Stack<Integer> values = new Stack<>();
-        Stack<Character> ops = new Stack<>();
-        for (int i = 0; i < expression.length(); i++) {
-            char c = expression.charAt(i);
 
-            if (c == ' ')
-                continue;
-
-            if (Character.isDigit(c)) {
-                int num = 0;
-                while (i < expression.length() && Character.isDigit(expression.charAt(i))) {
-                    num = num * 10 + (expression.charAt(i) - '0');
-                    i++;
-                }
-                values.push(num);
-                i--;
-            } else if (c == '(') {
-                ops.push(c);
-            } else if (c == ')') {
-                while (ops.peek() != '(') {
-                    values.push(applyOp(ops.pop(), values.pop(), values.pop()));
-                }
-                ops.pop();
-            } else if (c == '+' || c == '-' || c == '*' || c == '/') {
-                while (!ops.isEmpty() && hasPrecedence(c, ops.peek())) {
-                    values.push(applyOp(ops.pop(), values.pop(), values.pop()));
-                }
-                ops.push(c);
-            }
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            inputChanged();
         }
 
-        while (!ops.isEmpty()) {
-            values.push(applyOp(ops.pop(), values.pop(), values.pop()));
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            inputChanged();
         }
 
-        return values.pop();
-    }
-
-    private boolean hasPrecedence(char op1, char op2) {
-        if (op2 == '(' || op2 == ')')
-            return false;
-        if ((op1 == '*' || op1 == '/') && (op2 == '+' || op2 == '-'))
-            return false;
-        else
-            return true;
+        private void inputChanged() {
+            if (liveCheckBox.isSelected()) {
+                debounceTimer.restart();
+            }
+        }
     }
 
-    private int applyOp(char op, int b, int a) {
-        switch (op) {
-            case '+':
-                return a + b;
-            case '-':
-                return a - b;
-            case '*':
-                return a * b;
-            case '/':
-                if (b == 0)
-                    throw new UnsupportedOperationException("Cannot divide by zero");
-                return a / b;
+    // Cancel the running evaluation, if any, and evaluate the current input in the background
+    private void startEvaluation() {
+        String expression = inputField.getText();
+        long id = ++evaluationId;
+        if (pendingEvaluation != null) {
+            pendingEvaluation.cancel(true);
         }
-        return 0;
+        resultField.setText("...");
+        pendingEvaluation = evaluator.submit(() -> {
+            String text;
+            try {
+                text = TieredArithmetic.format(ExpressionEvaluator.evaluate(expression, cache));
+            } catch (Exception ex) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return; // Superseded by a newer evaluation
+                }
+                text = "Error";
+            }
+            String result = text;
+            SwingUtilities.invokeLater(() -> {
+                if (id == evaluationId) {
+                    resultField.setText(result);
+                }
+            });
+        });
     }
 
     public static void main(String[] args) {
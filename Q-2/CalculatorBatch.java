@@ -0,0 +1,165 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless batch mode for the calculator: evaluates a file with one expression per line on a pool of
+// worker threads and writes one result per line, in input order, to an output file.
+// Lines are read and handed out in fixed-size chunks, and only a bounded number of chunks is in flight,
+// so files with tens of millions of lines are never loaded fully into memory.
+// Results use the same exact arithmetic as the GUI (7/2 is 3.5, overflow promotes to BigInteger).
+// A line that fails to evaluate is written as "Error" (as the GUI shows it) and reported in the summary.
+public class CalculatorBatch {
+    private static final int CHUNK_SIZE = 4096;     // Lines per task
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_ERROR_LENGTH = 160;  // Messages quote the whole line, which may be megabytes
+    private static final long[] NO_VALUES = new long[0];
+
+    // Scratch value stack of each worker thread, grown to the deepest expression it has seen
+    private static final ThreadLocal<long[]> WORKER_STACK = ThreadLocal.withInitial(() -> new long[16]);
+
+    // Outcome of a batch run
+    public static class Summary {
+        public long lines;                                    // Lines evaluated
+        public long errors;                                   // Lines that could not be evaluated
+        public final List<String> errorDetails = new ArrayList<>(); // First errors as "line N: message"
+        public long nanos;                                    // Wall time of the run
+
+        public double linesPerSecond() {
+            return nanos == 0 ? 0 : lines * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d lines, %d errors, %.0f lines/s", lines, errors, linesPerSecond());
+        }
+    }
+
+    // Evaluate every line of 'input' and write the results to 'output' using 'threads' workers
+    public static Summary run(Path input, Path output, int threads) throws IOException, InterruptedException {
+        Summary summary = new Summary();
+        long begin = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // Chunks in submission order; at most 'maxInFlight' of them are waiting at any time
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+        int maxInFlight = threads * 4;
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            long firstLine = 1;
+            while (true) {
+                String[] chunk = readChunk(reader);
+                if (chunk.length == 0) {
+                    break;
+                }
+                if (pending.size() == maxInFlight) {
+                    writeChunk(pending.poll(), writer, summary);
+                }
+                long chunkFirstLine = firstLine;
+                pending.add(executor.submit(() -> evaluateChunk(chunk, chunkFirstLine)));
+                firstLine += chunk.length;
+            }
+            while (!pending.isEmpty()) {
+                writeChunk(pending.poll(), writer, summary);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        summary.nanos = System.nanoTime() - begin;
+        return summary;
+    }
+
+    private static String[] readChunk(BufferedReader reader) throws IOException {
+        List<String> lines = new ArrayList<>(CHUNK_SIZE);
+        String line;
+        while (lines.size() < CHUNK_SIZE && (line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    // Results of one chunk; a failed line holds "Error" and adds an entry to 'errors'
+    private static class Chunk {
+        final String[] results;
+        final List<String> errors = new ArrayList<>();
+
+        Chunk(String[] results) {
+            this.results = results;
+        }
+    }
+
+    // Evaluate a chunk, reusing the line array for the results
+    private static Chunk evaluateChunk(String[] lines, long firstLine) {
+        Chunk chunk = new Chunk(lines);
+        long[] stack = WORKER_STACK.get();
+        for (int i = 0; i < lines.length; i++) {
+            try {
+                CompiledExpression expression = CompiledExpression.compile(lines[i]);
+                if (stack.length < expression.stackSize()) {
+                    stack = new long[Math.max(expression.stackSize(), stack.length * 2)];
+                    WORKER_STACK.set(stack);
+                }
+                lines[i] = TieredArithmetic.format(expression.evaluateNumber(NO_VALUES, stack));
+            } catch (RuntimeException e) {
+                lines[i] = "Error";
+                chunk.errors.add("line " + (firstLine + i) + ": " + brief(e.getMessage()));
+            }
+        }
+        return chunk;
+    }
+
+    // 'message' cut to MAX_ERROR_LENGTH characters; the error position comes before the quoted line
+    private static String brief(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH) + "...";
+    }
+
+    private static void writeChunk(Future<Chunk> future, BufferedWriter writer, Summary summary)
+            throws IOException, InterruptedException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Batch worker failed", e.getCause());
+        }
+        for (String result : chunk.results) {
+            writer.write(result);
+            writer.newLine();
+        }
+        summary.lines += chunk.results.length;
+        summary.errors += chunk.errors.size();
+        for (String error : chunk.errors) {
+            if (summary.errorDetails.size() == MAX_REPORTED_ERRORS) {
+                break;
+            }
+            summary.errorDetails.add(error);
+        }
+    }
+
+    // Usage: java CalculatorBatch <input> <output> [threads]
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java CalculatorBatch <input> <output> [threads]");
+            System.exit(1);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Summary summary = run(Paths.get(args[0]), Paths.get(args[1]), threads);
+        System.out.println(summary);
+        for (String error : summary.errorDetails) {
+            System.out.println(error);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// An arithmetic expression compiled once into a postfix instruction array over primitive longs.
+// Supports + - * /, parentheses, non-negative integer literals, named variables and the implicit
+// multiplication BasicCalculatorGUI accepts ("2(3+4)", "(1+2)(3+4)", and also "2x").
+// A compiled expression is immutable, so one instance can be evaluated from many threads at once,
+// and evaluate(values, stack) allocates nothing.
+// Arithmetic follows ExpressionEvaluator: nothing wraps around or truncates silently. evaluate() returns
+// a long and throws ArithmeticException when the exact result is not one (overflow, a literal larger
+// than a long, or an inexact division such as 7/2); evaluateNumber() instead finishes such an
+// expression on TieredArithmetic and returns a Long, BigInteger or BigDecimal, exactly as the GUI shows it.
+public final class CompiledExpression {
+    private static final byte PUSH = 0;
+    private static final byte LOAD = 1;
+    private static final byte ADD = 2;
+    private static final byte SUB = 3;
+    private static final byte MUL = 4;
+    private static final byte DIV = 5;
+    private static final byte PUSH_BIG = 6;   // Literal larger than a long, operand is its index in 'constants'
+    private static final char[] OPERATOR_CHARS = { 0, 0, '+', '-', '*', '/' };
+    private static final long[] NO_VALUES = new long[0];
+
+    // Scratch stack per thread for the overloads without one, shared by all compiled expressions and
+    // grown to the deepest one evaluated on that thread
+    private static final ThreadLocal<long[]> SCRATCH = ThreadLocal.withInitial(() -> new long[16]);
+
+    private final String source;
+    private final byte[] ops;          // Instruction opcodes
+    private final long[] operands;     // Literal value for PUSH, variable slot for LOAD
+    private final String[] variables;  // Variable names by slot
+    private final BigInteger[] constants; // Literals larger than a long
+    private final int maxStack;        // Deepest value stack any evaluation needs
+
+    private CompiledExpression(String source, byte[] ops, long[] operands, String[] variables, BigInteger[] constants,
+            int maxStack) {
+        this.source = source;
+        this.ops = ops;
+        this.operands = operands;
+        this.variables = variables;
+        this.constants = constants;
+        this.maxStack = maxStack;
+    }
+
+    // Compile 'expression'; throws IllegalArgumentException if it is malformed
+    public static CompiledExpression compile(String expression) {
+        Compiler compiler = new Compiler(expression);
+        compiler.run();
+        return new CompiledExpression(expression, Arrays.copyOf(compiler.ops, compiler.size),
+                Arrays.copyOf(compiler.operands, compiler.size), compiler.names.toArray(new String[0]),
+                compiler.constants.toArray(new BigInteger[0]), compiler.maxDepth);
+    }
+
+    // Evaluate an expression without variables
+    public long evaluate() {
+        return evaluate(NO_VALUES);
+    }
+
+    // Evaluate with values[i] bound to variables()[i], using a per-thread scratch stack
+    public long evaluate(long[] values) {
+        return evaluate(values, scratchStack());
+    }
+
+    // Evaluate with values[i] bound to variables()[i], using the caller's scratch stack.
+    // 'stack' must hold at least stackSize() entries.
+    public long evaluate(long[] values, long[] stack) {
+        if (!runPrimitive(values, stack)) {
+            throw new ArithmeticException("Result of \"" + source + "\" is not an exact long; use evaluateNumber");
+        }
+        return stack[0];
+    }
+
+    // Evaluate an expression without variables to a Long, BigInteger or BigDecimal
+    public Number evaluateNumber() {
+        return evaluateNumber(NO_VALUES, scratchStack());
+    }
+
+    // Like evaluate(values, stack), but an expression whose result is not an exact long is evaluated
+    // again on TieredArithmetic instead of failing. Only that slow path allocates.
+    public Number evaluateNumber(long[] values, long[] stack) {
+        if (runPrimitive(values, stack)) {
+            return stack[0];
+        }
+        return runTiered(values);
+    }
+
+    // This thread's scratch stack, grown to hold stackSize() entries
+    private long[] scratchStack() {
+        long[] stack = SCRATCH.get();
+        if (stack.length < maxStack) {
+            stack = new long[Math.max(maxStack, stack.length * 2)];
+            SCRATCH.set(stack);
+        }
+        return stack;
+    }
+
+    // Primitive tier with the overflow tests of Math.*Exact done inline. Leaves the result in stack[0]
+    // and returns true, or returns false as soon as an operation has no exact long result.
+    private boolean runPrimitive(long[] values, long[] stack) {
+        if (values.length < variables.length) {
+            throw new IllegalArgumentException("Expected " + variables.length + " variable values, got " + values.length);
+        }
+        int top = -1;
+        for (int pc = 0; pc < ops.length; pc++) {
+            long a;
+            long b;
+            long result;
+            switch (ops[pc]) {
+                case PUSH:
+                    stack[++top] = operands[pc];
+                    break;
+                case LOAD:
+                    stack[++top] = values[(int) operands[pc]];
+                    break;
+                case ADD:
+                    a = stack[--top];
+                    b = stack[top + 1];
+                    result = a + b;
+                    if (((a ^ result) & (b ^ result)) < 0)
+                        return false;
+                    stack[top] = result;
+                    break;
+                case SUB:
+                    a = stack[--top];
+                    b = stack[top + 1];
+                    result = a - b;
+                    if (((a ^ b) & (a ^ result)) < 0)
+                        return false;
+                    stack[top] = result;
+                    break;
+                case MUL:
+                    a = stack[--top];
+                    b = stack[top + 1];
+                    result = a * b;
+                    if (Math.multiplyHigh(a, b) != (result >> 63))
+                        return false;
+                    stack[top] = result;
+                    break;
+                case DIV:
+                    a = stack[--top];
+                    b = stack[top + 1];
+                    if (b == 0)
+                        throw new UnsupportedOperationException("Cannot divide by zero");
+                    if (a % b != 0 || (a == Long.MIN_VALUE && b == -1))
+                        return false;
+                    stack[top] = a / b;
+                    break;
+                default:
+                    return false; // PUSH_BIG
+            }
+        }
+        return true;
+    }
+
+    // Slow tier: the whole program on boxed values, each operation through TieredArithmetic
+    private Number runTiered(long[] values) {
+        Number[] stack = new Number[maxStack];
+        int top = -1;
+        for (int pc = 0; pc < ops.length; pc++) {
+            switch (ops[pc]) {
+                case PUSH:
+                    stack[++top] = operands[pc];
+                    break;
+                case LOAD:
+                    stack[++top] = values[(int) operands[pc]];
+                    break;
+                case PUSH_BIG:
+                    stack[++top] = constants[(int) operands[pc]];
+                    break;
+                default:
+                    top--;
+                    stack[top] = TieredArithmetic.apply(OPERATOR_CHARS[ops[pc]], stack[top], stack[top + 1]);
+            }
+        }
+        return stack[0];
+    }
+
+    // Variable names in slot order
+    public String[] variables() {
+        return variables.clone();
+    }
+
+    // Slot of variable 'name', or -1 if the expression does not use it
+    public int slot(String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Size of the scratch stack evaluate(values, stack) needs
+    public int stackSize() {
+        return maxStack;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    // Shunting-yard compiler that emits postfix code directly and tracks the stack depth it implies
+    private static class Compiler {
+        private final String text;
+        private byte[] ops = new byte[16];
+        private long[] operands = new long[16];
+        private int size;
+        private final List<String> names = new ArrayList<>();
+        private final List<BigInteger> constants = new ArrayList<>();
+        private final char[] opStack;
+        private int opTop = -1;
+        private int depth;
+        private int maxDepth;
+
+        Compiler(String text) {
+            this.text = text;
+            this.opStack = new char[text.length()];
+        }
+
+        void run() {
+            // True when the previous token was an operand or ')', so an operator may follow
+            boolean afterOperand = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == ' ') {
+                    continue;
+                }
+
+                if (Character.isDigit(c) || isNameStart(c)) {
+                    if (afterOperand) {
+                        // "2x": implicit multiplication between a number and a variable
+                        if (!isNameStart(c) || !Character.isDigit(text.charAt(previousNonSpace(i)))) {
+                            throw error("Missing operator", i);
+                        }
+                        pushOperator('*');
+                    }
+                    int j = i;
+                    if (Character.isDigit(c)) {
+                        long num = 0;
+                        boolean overflow = false;
+                        while (j < text.length() && Character.isDigit(text.charAt(j))) {
+                            int digit = text.charAt(j) - '0';
+                            if (num > (Long.MAX_VALUE - digit) / 10) {
+                                overflow = true;
+                            } else if (!overflow) {
+                                num = num * 10 + digit;
+                            }
+                            j++;
+                        }
+                        if (overflow) {
+                            constants.add(new BigInteger(text.substring(i, j)));
+                            emit(PUSH_BIG, constants.size() - 1);
+                        } else {
+                            emit(PUSH, num);
+                        }
+                    } else {
+                        while (j < text.length() && (isNameStart(text.charAt(j)) || Character.isDigit(text.charAt(j)))) {
+                            j++;
+                        }
+                        emit(LOAD, slotOf(text.substring(i, j)));
+                    }
+                    i = j - 1;
+                    afterOperand = true;
+                } else if (c == '(') {
+                    if (afterOperand) {
+                        pushOperator('*'); // "2(3)", "(1)(2)", "x(1)"
+                    }
+                    opStack[++opTop] = c;
+                    afterOperand = false;
+                } else if (c == ')') {
+                    if (!afterOperand) {
+                        throw error("Missing operand", i);
+                    }
+                    while (opTop >= 0 && opStack[opTop] != '(') {
+                        emitOperator(opStack[opTop--], i);
+                    }
+                    if (opTop < 0) {
+                        throw error("Unmatched ')'", i);
+                    }
+                    opTop--;
+                } else if (c == '+' || c == '-' || c == '*' || c == '/') {
+                    if (!afterOperand) {
+                        throw error("Missing operand", i);
+                    }
+                    pushOperator(c);
+                    afterOperand = false;
+                } else {
+                    throw error("Unexpected character '" + c + "'", i);
+                }
+            }
+
+            if (!afterOperand) {
+                throw error("Missing operand", text.length());
+            }
+            while (opTop >= 0) {
+                if (opStack[opTop] == '(') {
+                    throw error("Unmatched '('", text.length());
+                }
+                emitOperator(opStack[opTop--], text.length());
+            }
+        }
+
+        private void pushOperator(char op) {
+            while (opTop >= 0 && opStack[opTop] != '(' && precedence(opStack[opTop]) >= precedence(op)) {
+                emitOperator(opStack[opTop--], -1);
+            }
+            opStack[++opTop] = op;
+        }
+
+        private void emitOperator(char op, int position) {
+            if (depth < 2) {
+                throw error("Missing operand", position);
+            }
+            emit(op == '+' ? ADD : op == '-' ? SUB : op == '*' ? MUL : DIV, 0);
+        }
+
+        private void emit(byte op, long operand) {
+            if (size == ops.length) {
+                ops = Arrays.copyOf(ops, size * 2);
+                operands = Arrays.copyOf(operands, size * 2);
+            }
+            ops[size] = op;
+            operands[size] = operand;
+            size++;
+            depth += op == PUSH || op == LOAD || op == PUSH_BIG ? 1 : -1;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        private int slotOf(String name) {
+            int slot = names.indexOf(name);
+            if (slot < 0) {
+                names.add(name);
+                slot = names.size() - 1;
+            }
+            return slot;
+        }
+
+        private int previousNonSpace(int i) {
+            int j = i - 1;
+            while (text.charAt(j) == ' ') {
+                j--;
+            }
+            return j;
+        }
+
+        private static int precedence(char op) {
+            return op == '*' || op == '/' ? 2 : 1;
+        }
+
+        private static boolean isNameStart(char c) {
+            return Character.isLetter(c) || c == '_';
+        }
+
+        private IllegalArgumentException error(String message, int position) {
+            return new IllegalArgumentException(message + " at position " + position + " in \"" + text + "\"");
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.println(compile("2(3+4)").evaluate()); // Output: 14
+
+        // Compile once, evaluate many rows without allocating
+        CompiledExpression price = compile("qty * unit - discount");
+        long[] stack = new long[price.stackSize()];
+        long[][] rows = { { 3, 250, 50 }, { 10, 99, 0 } };
+        for (long[] row : rows) {
+            System.out.println(price.evaluate(row, stack)); // Output: 700, then 990
+        }
+
+        // Same results as the GUI when a result is not an exact long
+        System.out.println(compile("7/2").evaluateNumber());                   // Output: 3.5
+        System.out.println(compile("9223372036854775807+1").evaluateNumber()); // Output: 9223372036854775808
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Bounded LRU cache of evaluated sub-expressions, keyed by a fingerprint of their normalized text.
+// Shared between evaluations so that editing one end of a long formula only re-evaluates the
+// parenthesized groups that actually changed.
+// Normalizing drops spaces except a run between two digits, which is kept as one space, so "1 + 2"
+// and "1+2" share a key but "1 2" (an error) and "12" do not.
+// Keys are fixed size (two polynomial hashes mod the prime 2^61 - 1 plus the length), so the cache
+// never holds copies of the text and an entry costs the same for a 40-character group as for a 40 KB
+// one. The bases are drawn at random for every cache: with a fixed base, or arithmetic mod 2^64,
+// inputs can be built that collide (Thue-Morse strings do for every odd base), while with random
+// bases two different texts of length n share a key with probability about (n / 2^61)^2.
+public class ExpressionCache {
+    static final long MODULUS = (1L << 61) - 1;
+
+    final long base1;  // Bases of the two rolling hashes, in [2^16, MODULUS)
+    final long base2;
+    private final Map<Key, Number> values;
+
+    public ExpressionCache(int capacity) {
+        this.base1 = ThreadLocalRandom.current().nextLong(1 << 16, MODULUS);
+        this.base2 = ThreadLocalRandom.current().nextLong(1 << 16, MODULUS);
+        // Access-ordered map that drops the least recently used entry once it is over capacity
+        this.values = new LinkedHashMap<Key, Number>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Number> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized Number get(Key key) {
+        return values.get(key);
+    }
+
+    synchronized void put(Key key, Number value) {
+        values.put(key, value);
+    }
+
+    public synchronized int size() {
+        return values.size();
+    }
+
+    // Fingerprint of a normalized text: its two rolling hashes and its length
+    static final class Key {
+        final long hash1;
+        final long hash2;
+        final int length;
+
+        Key(long hash1, long hash2, int length) {
+            this.hash1 = hash1;
+            this.hash2 = hash2;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hash1 == key.hash1 && hash2 == key.hash2 && length == key.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash1 ^ (hash1 >>> 32));
+        }
+    }
+
+    // hash * base + c mod MODULUS, for a hash and base below MODULUS
+    static long append(long hash, long base, char c) {
+        return reduce(multiply(hash, base) + c);
+    }
+
+    // Hash of the characters appended after 'prefix' to reach 'whole', given base^count
+    static long tail(long whole, long prefix, long basePower) {
+        return reduce(whole + MODULUS - multiply(prefix, basePower));
+    }
+
+    // base^exponent mod MODULUS
+    static long power(long base, long exponent) {
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = multiply(result, base);
+            }
+            base = multiply(base, base);
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    // a * b mod MODULUS for a, b below MODULUS. The 122-bit product is split at bit 61, and since
+    // 2^61 = 1 (mod MODULUS) the two halves are simply added.
+    private static long multiply(long a, long b) {
+        long low = a * b;
+        long high = Math.multiplyHigh(a, b);
+        return reduce(((high << 3) | (low >>> 61)) + (low & MODULUS));
+    }
+
+    // x mod MODULUS for 0 <= x < 2^63
+    private static long reduce(long x) {
+        x = (x & MODULUS) + (x >>> 61);
+        return x >= MODULUS ? x - MODULUS : x;
+    }
+}
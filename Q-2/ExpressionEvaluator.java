@@ -0,0 +1,459 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+// Single-pass evaluator for very long calculator expressions.
+// Reads a CharSequence once, inserts the implicit '*' of "2(3)" and "(1)(2)" on the fly and reduces
+// operators as soon as precedence allows, so the operand and operator stacks only grow with the
+// nesting depth, never with the input length. Nesting is tracked on those explicit stacks, so
+// thousands of levels of parentheses need no recursion and no intermediate copies of the text.
+// With an ExpressionCache, parenthesized groups longer than MIN_CACHED_LENGTH (and at most
+// MAX_CACHED_LENGTH) characters are looked up before they are evaluated and stored afterwards. One
+// extra pass matches the parentheses and computes a rolling-hash fingerprint of every such group, so
+// keys cost O(1) each and the text is never copied; that pass keeps one small record per cached group.
+// Evaluation stops with a CancellationException when the evaluating thread is interrupted.
+// Arithmetic runs on primitive longs with the same overflow tests as Math.*Exact, done inline so the
+// fast path never throws; an operation that overflows or divides inexactly is handed to
+// TieredArithmetic, so results are Long, BigInteger or BigDecimal.
+public final class ExpressionEvaluator {
+    static final int MIN_CACHED_LENGTH = 32;        // Shorter groups are cheaper to evaluate than to look up
+    static final int MAX_CACHED_LENGTH = 1 << 16;   // Longer groups are not cached; their inner groups still are
+    private static final int INTERRUPT_CHECK_MASK = 0xFFF;
+
+    private long[] values = new long[16];
+    private Number[] promoted = new Number[16];     // Non-null where values[i] left the primitive tier
+    private int valueTop = -1;
+    private char[] ops = new char[16];
+    private int[] opGroups = new int[16];           // Cached group opened by each '(' on the operator stack, or -1
+    private int opTop = -1;
+
+    private final ExpressionCache cache;
+    private final boolean tiered;                   // false only for the long-only benchmark baseline
+    // Cached groups in order of their '(': position of '(' and ')' and fingerprint of the text between
+    private int[] groupOpen;
+    private int[] groupClose;
+    private ExpressionCache.Key[] groupKey;
+    private int groupCount;
+    private int nextGroup;                          // First group whose '(' has not been reached yet
+    private ExpressionCache.Key wholeKey;           // Fingerprint of the whole expression
+
+    private ExpressionEvaluator(ExpressionCache cache) {
+        this(cache, true);
+    }
+
+    private ExpressionEvaluator(ExpressionCache cache, boolean tiered) {
+        this.cache = cache;
+        this.tiered = tiered;
+    }
+
+    // Evaluate 'expression'; throws IllegalArgumentException if it is malformed
+    public static Number evaluate(CharSequence expression) {
+        return new ExpressionEvaluator(null).run(expression);
+    }
+
+    // Evaluate 'expression', reusing and filling 'cache' for long parenthesized groups
+    public static Number evaluate(CharSequence expression, ExpressionCache cache) {
+        return new ExpressionEvaluator(cache).run(expression);
+    }
+
+    private Number run(CharSequence text) {
+        int length = text.length();
+        if (cache != null) {
+            scanGroups(text);
+            Number cached = cache.get(wholeKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // True when the previous token was a number or ')', so an operator may follow
+        boolean afterOperand = false;
+        for (int i = 0; i < length; i++) {
+            if ((i & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Evaluation interrupted at position " + i);
+            }
+            char c = text.charAt(i);
+            if (c == ' ') {
+                continue;
+            }
+
+            if (Character.isDigit(c)) {
+                if (afterOperand) {
+                    throw error("Missing operator", i);
+                }
+                int start = i;
+                long num = 0;
+                boolean overflow = false;
+                while (i < length && Character.isDigit(text.charAt(i))) {
+                    int digit = text.charAt(i) - '0';
+                    if (num > (Long.MAX_VALUE - digit) / 10) {
+                        overflow = true;
+                    } else if (!overflow) {
+                        num = num * 10 + digit;
+                    }
+                    i++;
+                }
+                if (overflow) {
+                    pushValue(new BigInteger(text.subSequence(start, i).toString()));
+                } else {
+                    pushValue(num);
+                }
+                i--;
+                afterOperand = true;
+            } else if (c == '(') {
+                if (afterOperand) {
+                    pushOperator('*', i); // Implicit multiplication
+                }
+                int group = cachedGroupAt(i);
+                if (group >= 0) {
+                    Number cached = cache.get(groupKey[group]);
+                    if (cached != null) {
+                        // Reuse the whole group and continue after its ')'
+                        pushValue(cached);
+                        i = groupClose[group];
+                        afterOperand = true;
+                        continue;
+                    }
+                }
+                pushOp('(');
+                opGroups[opTop] = group;
+                afterOperand = false;
+            } else if (c == ')') {
+                if (!afterOperand) {
+                    throw error("Missing operand", i);
+                }
+                while (opTop >= 0 && ops[opTop] != '(') {
+                    reduce(i);
+                }
+                if (opTop < 0) {
+                    throw error("Unmatched ')'", i);
+                }
+                int group = opGroups[opTop--];
+                if (group >= 0) {
+                    cache.put(groupKey[group], valueAt(valueTop));
+                }
+            } else if (c == '+' || c == '-' || c == '*' || c == '/') {
+                if (!afterOperand) {
+                    throw error("Missing operand", i);
+                }
+                pushOperator(c, i);
+                afterOperand = false;
+            } else {
+                throw error("Unexpected character '" + c + "'", i);
+            }
+        }
+
+        if (!afterOperand) {
+            throw error("Missing operand", length);
+        }
+        while (opTop >= 0) {
+            if (ops[opTop] == '(') {
+                throw error("Unmatched '('", length);
+            }
+            reduce(length);
+        }
+        Number result = valueAt(0);
+        if (cache != null) {
+            cache.put(wholeKey, result);
+        }
+        return result;
+    }
+
+    // Index of the cached group whose '(' is at 'open', or -1
+    private int cachedGroupAt(int open) {
+        if (cache == null) {
+            return -1;
+        }
+        // Groups inside a group that was taken from the cache were never reached
+        while (nextGroup < groupCount && groupOpen[nextGroup] < open) {
+            nextGroup++;
+        }
+        return nextGroup < groupCount && groupOpen[nextGroup] == open ? nextGroup++ : -1;
+    }
+
+    // Match the parentheses and fingerprint every cacheable group and the whole text in one pass.
+    // Prefix hashes run over the normalized text (see ExpressionCache); the hash of the characters
+    // between two points is hash(end) - hash(start) * base^count, so each group costs O(log length) on
+    // top of the scan. Unmatched parentheses are ignored here and reported by the evaluation pass.
+    private void scanGroups(CharSequence text) {
+        groupOpen = new int[16];
+        groupClose = new int[16];
+        groupKey = new ExpressionCache.Key[16];
+        int[] openPosition = new int[16];
+        int[] openCount = new int[16];
+        long[] openHash1 = new long[16];
+        long[] openHash2 = new long[16];
+        int top = -1;
+        long hash1 = 0;
+        long hash2 = 0;
+        int count = 0;
+        boolean spaceAfterDigit = false;  // Spaces were skipped right after a digit
+        for (int i = 0; i < text.length(); i++) {
+            if ((i & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Evaluation interrupted at position " + i);
+            }
+            char c = text.charAt(i);
+            if (c == ' ') {
+                spaceAfterDigit |= count > 0 && Character.isDigit(text.charAt(i - 1));
+                continue;
+            }
+            if (spaceAfterDigit && Character.isDigit(c)) {
+                // Keep "1 2" apart from "12"
+                hash1 = ExpressionCache.append(hash1, cache.base1, ' ');
+                hash2 = ExpressionCache.append(hash2, cache.base2, ' ');
+                count++;
+            }
+            spaceAfterDigit = false;
+            if (c == ')' && top >= 0) {
+                int open = openPosition[top];
+                if (i - open > MIN_CACHED_LENGTH && i - open <= MAX_CACHED_LENGTH) {
+                    int inner = count - openCount[top];
+                    addGroup(open, i, new ExpressionCache.Key(
+                            ExpressionCache.tail(hash1, openHash1[top], ExpressionCache.power(cache.base1, inner)),
+                            ExpressionCache.tail(hash2, openHash2[top], ExpressionCache.power(cache.base2, inner)),
+                            inner));
+                }
+                top--;
+            }
+            hash1 = ExpressionCache.append(hash1, cache.base1, c);
+            hash2 = ExpressionCache.append(hash2, cache.base2, c);
+            count++;
+            if (c == '(') {
+                if (++top == openPosition.length) {
+                    openPosition = Arrays.copyOf(openPosition, top * 2);
+                    openCount = Arrays.copyOf(openCount, top * 2);
+                    openHash1 = Arrays.copyOf(openHash1, top * 2);
+                    openHash2 = Arrays.copyOf(openHash2, top * 2);
+                }
+                openPosition[top] = i;
+                openCount[top] = count;
+                openHash1[top] = hash1;
+                openHash2[top] = hash2;
+            }
+        }
+        wholeKey = new ExpressionCache.Key(hash1, hash2, count);
+        sortGroupsByOpen();
+    }
+
+    private void addGroup(int open, int close, ExpressionCache.Key key) {
+        if (groupCount == groupOpen.length) {
+            groupOpen = Arrays.copyOf(groupOpen, groupCount * 2);
+            groupClose = Arrays.copyOf(groupClose, groupCount * 2);
+            groupKey = Arrays.copyOf(groupKey, groupCount * 2);
+        }
+        groupOpen[groupCount] = open;
+        groupClose[groupCount] = close;
+        groupKey[groupCount] = key;
+        groupCount++;
+    }
+
+    // Groups are found in order of their ')'; the evaluation pass meets them in order of their '('
+    private void sortGroupsByOpen() {
+        long[] order = new long[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            order[g] = ((long) groupOpen[g] << 32) | g;
+        }
+        Arrays.sort(order);
+        int[] open = new int[groupCount];
+        int[] close = new int[groupCount];
+        ExpressionCache.Key[] key = new ExpressionCache.Key[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            int from = (int) order[g];
+            open[g] = groupOpen[from];
+            close[g] = groupClose[from];
+            key[g] = groupKey[from];
+        }
+        groupOpen = open;
+        groupClose = close;
+        groupKey = key;
+    }
+
+    // Reduce every pending operator of equal or higher precedence, then push 'op'.
+    // This keeps at most two operators and three operands per nesting level.
+    private void pushOperator(char op, int position) {
+        while (opTop >= 0 && ops[opTop] != '(' && precedence(ops[opTop]) >= precedence(op)) {
+            reduce(position);
+        }
+        pushOp(op);
+    }
+
+    // Apply the top operator to the two top operands
+    private void reduce(int position) {
+        if (valueTop < 1) {
+            throw error("Missing operand", position);
+        }
+        char op = ops[opTop--];
+        int top = valueTop--;
+        int under = valueTop;
+        if (!tiered) {
+            values[under] = wrappingOp(op, values[under], values[top]);
+            return;
+        }
+        if (promoted[top] == null && promoted[under] == null && applyOp(op, under, values[under], values[top])) {
+            return;
+        }
+        // Overflow or inexact division: only this operation moves to the slow tier
+        pushAt(under, TieredArithmetic.apply(op, valueAt(under), valueAt(top)));
+    }
+
+    // Primitive tier: store 'a op b' at 'index' and return true, or return false when the
+    // result is not an exact long. Throwing here instead would cost far more than the operation.
+    private boolean applyOp(char op, int index, long a, long b) {
+        long result;
+        switch (op) {
+            case '+':
+                result = a + b;
+                if (((a ^ result) & (b ^ result)) < 0)
+                    return false;
+                break;
+            case '-':
+                result = a - b;
+                if (((a ^ b) & (a ^ result)) < 0)
+                    return false;
+                break;
+            case '*':
+                result = a * b;
+                if (Math.multiplyHigh(a, b) != (result >> 63))
+                    return false;
+                break;
+            default:
+                if (b == 0)
+                    throw new UnsupportedOperationException("Cannot divide by zero");
+                if (a % b != 0 || (a == Long.MIN_VALUE && b == -1))
+                    return false;
+                result = a / b;
+        }
+        values[index] = result;
+        return true;
+    }
+
+    // Plain long arithmetic that wraps on overflow and truncates division, as before tiering
+    private static long wrappingOp(char op, long a, long b) {
+        switch (op) {
+            case '+':
+                return a + b;
+            case '-':
+                return a - b;
+            case '*':
+                return a * b;
+            default:
+                if (b == 0)
+                    throw new UnsupportedOperationException("Cannot divide by zero");
+                return a / b;
+        }
+    }
+
+    private Number valueAt(int index) {
+        return promoted[index] != null ? promoted[index] : (Number) values[index];
+    }
+
+    private void pushValue(long value) {
+        if (++valueTop == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            promoted = Arrays.copyOf(promoted, promoted.length * 2);
+        }
+        values[valueTop] = value;
+        promoted[valueTop] = null;
+    }
+
+    private void pushValue(Number value) {
+        pushValue(0L);
+        pushAt(valueTop, value);
+    }
+
+    // Store 'value' at 'index', keeping Long values in the primitive array
+    private void pushAt(int index, Number value) {
+        if (value instanceof Long) {
+            values[index] = value.longValue();
+            promoted[index] = null;
+        } else {
+            promoted[index] = value;
+        }
+    }
+
+    private void pushOp(char op) {
+        if (++opTop == ops.length) {
+            ops = Arrays.copyOf(ops, ops.length * 2);
+            opGroups = Arrays.copyOf(opGroups, opGroups.length * 2);
+        }
+        ops[opTop] = op;
+    }
+
+    private static int precedence(char op) {
+        return op == '*' || op == '/' ? 2 : 1;
+    }
+
+    private static IllegalArgumentException error(String message, int position) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+
+    public static void main(String[] args) {
+        System.out.println(evaluate("2(3+4)"));       // Output: 14
+        System.out.println(evaluate("(1+2)(3+4)-5")); // Output: 16
+
+        // 100 000 levels of nesting, evaluated without recursion
+        int depth = 100_000;
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            deep.append("(1+");
+        }
+        deep.append('0');
+        for (int i = 0; i < depth; i++) {
+            deep.append(')');
+        }
+        System.out.println(evaluate(deep));             // Output: 100000
+
+        // Overflow and inexact division only promote the affected operation
+        System.out.println(evaluate("9223372036854775807 + 1"));  // Output: 9223372036854775808
+        System.out.println(evaluate("(9223372036854775807 + 1) - 2")); // Output: 9223372036854775806
+        System.out.println(evaluate("7/2"));                      // Output: 3.5
+        System.out.println(evaluate("(7/2)*2 + 1"));              // Output: 8
+
+        // A cached result is only reused for the same expression: "1 2" is not "12", and Thue-Morse
+        // words (which collide under any hash mod 2^64) do not collide with their complement
+        ExpressionCache cache = new ExpressionCache(64);
+        evaluate("12", cache);
+        try {
+            evaluate("1 2", cache);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());                   // Output: Missing operator at position 2
+        }
+        StringBuilder thueMorse = new StringBuilder("0+(0+");
+        StringBuilder complement = new StringBuilder("0+(0+");
+        for (int i = 0; i < 2048; i++) {
+            boolean odd = (Integer.bitCount(i) & 1) != 0;
+            thueMorse.append(odd ? '1' : '0');
+            complement.append(odd ? '0' : '1');
+        }
+        thueMorse.append(')');
+        complement.append(')');
+        evaluate(thueMorse, cache);
+        System.out.println(evaluate(complement, cache).equals(evaluate(complement))); // Output: true
+
+        // Benchmark: on small numbers the tiered evaluator should match a long-only evaluator that
+        // parses the same way; huge numbers have no long-only equivalent and run on BigInteger
+        String small = "(12+34)*5-6/3+(7*8-9)*10";
+        double longOnly = Double.MAX_VALUE;
+        double tiered = Double.MAX_VALUE;
+        for (int round = 0; round < 5; round++) { // Alternate and keep the best round to cancel out JIT and GC noise
+            longOnly = Math.min(longOnly, nanosPerEvaluation(small, false));
+            tiered = Math.min(tiered, nanosPerEvaluation(small, true));
+        }
+        System.out.printf("small: tiered %.0f ns, long-only %.0f ns, ratio %.2f%n", tiered, longOnly, tiered / longOnly);
+        String huge = "(12345678901234567890+34)*5-6/3+(7*8-9)*12345678901234567890";
+        System.out.printf("huge: tiered %.0f ns%n", nanosPerEvaluation(huge, true));
+    }
+
+    private static double nanosPerEvaluation(String expression, boolean tiered) {
+        int rounds = 1_000_000;
+        long sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += new ExpressionEvaluator(null, tiered).run(expression).hashCode(); // Warm up
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += new ExpressionEvaluator(null, tiered).run(expression).hashCode();
+        }
+        double nanos = (double) (System.nanoTime() - begin) / rounds;
+        return sink == 42 ? nanos + 1 : nanos; // Keep 'sink' alive
+    }
+}
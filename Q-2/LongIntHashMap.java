@@ -0,0 +1,104 @@
+import java.util.Arrays;
+
+// Open-addressing hash map from long keys to int values, without boxing.
+// Uses linear probing and backward-shift deletion, so removals leave no tombstones and a map that
+// is filled and emptied in a sliding window never degrades. The capacity is fixed at construction:
+// callers size it for the most entries they will hold at once.
+// Long.MIN_VALUE marks an empty slot and cannot be used as a key.
+class LongIntHashMap {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MAX_CAPACITY = 1 << 30;  // Largest power-of-two array length
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+    private int size;
+
+    // Map that holds up to 'maxEntries' entries at a load factor of at most 1/2, or as close to it as
+    // the largest array allows
+    LongIntHashMap(int maxEntries) {
+        if (maxEntries < 0 || maxEntries >= MAX_CAPACITY) {
+            throw new IllegalArgumentException("LongIntHashMap cannot hold " + maxEntries + " entries, at most "
+                    + (MAX_CAPACITY - 1));
+        }
+        // Sized in long: doubling a large int entry count would overflow
+        int capacity = (int) Math.min(MAX_CAPACITY, Long.highestOneBit(Math.max(2L, maxEntries) * 2 - 1) << 1);
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    // Slot holding 'key', or -1 if it is absent
+    int slot(long key) {
+        int i = hash(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    boolean containsKey(long key) {
+        return slot(key) >= 0;
+    }
+
+    void put(long key, int value) {
+        int i = hash(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        if (size == keys.length - 1) {
+            throw new IllegalStateException("LongIntHashMap is full");
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    void remove(long key) {
+        int i = slot(key);
+        if (i < 0) {
+            return;
+        }
+        size--;
+        // Shift later entries of the probe run back so lookups never hit a gap before their key
+        int gap = i;
+        int j = (i + 1) & mask;
+        while (keys[j] != EMPTY) {
+            int home = hash(keys[j]);
+            // The entry at j may fill the gap if its home slot is not inside (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+            j = (j + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,84 @@
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Fork-join version of TheaterSeating.areFriendsComfortable for arrays of hundreds of millions of seats.
+// The array is split into chunks; each chunk is scanned with the bucket engine starting maxIndexDiff
+// seats before its own start, so every pair ending inside the chunk is seen by that chunk alone.
+// The first chunk that finds a pair sets a shared flag and every other scan stops at its next check.
+// Input can be an int[] or any IntBuffer, including a view of a memory-mapped file.
+public class ParallelSeatScan {
+    private static final int MIN_CHUNK = 1 << 20; // Seats per chunk before overlap is added
+
+    public static boolean areFriendsComfortable(int[] seats, int maxIndexDiff, int maxValueDiff) {
+        return areFriendsComfortable(IntBuffer.wrap(seats), maxIndexDiff, maxValueDiff);
+    }
+
+    // Scan seats[position, limit) of 'seats' on the common pool
+    public static boolean areFriendsComfortable(IntBuffer seats, int maxIndexDiff, int maxValueDiff) {
+        return areFriendsComfortable(seats, maxIndexDiff, maxValueDiff, ForkJoinPool.commonPool());
+    }
+
+    public static boolean areFriendsComfortable(IntBuffer seats, int maxIndexDiff, int maxValueDiff, ForkJoinPool pool) {
+        if (maxIndexDiff <= 0 || maxValueDiff < 0) {
+            return false;
+        }
+        // Keep the overlap small next to the chunk so the extra work stays bounded
+        int chunk = (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_CHUNK, 8L * maxIndexDiff));
+        IntBuffer view = seats.slice();
+        return pool.invoke(new ScanTask(view, 0, view.limit(), chunk, maxIndexDiff, maxValueDiff, new AtomicBoolean()));
+    }
+
+    // Splits [from, to) in halves down to one chunk, then runs the bucket scan on it
+    private static class ScanTask extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final IntBuffer seats;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final int maxIndexDiff;
+        private final int maxValueDiff;
+        private final AtomicBoolean found;
+
+        ScanTask(IntBuffer seats, int from, int to, int chunk, int maxIndexDiff, int maxValueDiff, AtomicBoolean found) {
+            this.seats = seats;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.maxIndexDiff = maxIndexDiff;
+            this.maxValueDiff = maxValueDiff;
+            this.found = found;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (found.get()) {
+                return true;
+            }
+            if (to - from <= chunk) {
+                int start = Math.max(0, from - maxIndexDiff);
+                if (TheaterSeating.bucketScan(seats, start, to, maxIndexDiff, maxValueDiff, found)) {
+                    found.set(true);
+                }
+                return found.get();
+            }
+            int mid = from + (to - from) / 2;
+            ScanTask right = new ScanTask(seats, mid, to, chunk, maxIndexDiff, maxValueDiff, found);
+            right.fork();
+            boolean left = new ScanTask(seats, from, mid, chunk, maxIndexDiff, maxValueDiff, found).compute();
+            if (left) {
+                right.cancel(false);
+                return true;
+            }
+            return right.join();
+        }
+    }
+
+    public static void main(String[] args) {
+        int[] seats = {2, 3, 5, 4, 9};
+        System.out.println(areFriendsComfortable(seats, 2, 1)); // Output: true
+        System.out.println(areFriendsComfortable(seats, 1, 0)); // Output: false
+    }
+}
@@ -0,0 +1,157 @@
+// Streaming version of TheaterSeating.areFriendsComfortable for an unbounded feed of seat assignments.
+// Seats arrive one at a time; the monitor keeps only the last maxIndexDiff of them and reports every
+// pair (i, j), i < j, with j - i <= maxIndexDiff and |seats[i] - seats[j]| <= maxValueDiff as soon as
+// seat j arrives. Seats are kept in a ring buffer and grouped into value buckets of width
+// maxValueDiff + 1, so a new seat only looks at its own bucket and the two neighbouring ones.
+// Every seat in its own bucket pairs with the new seat, so in count-only mode that bucket is counted
+// from its size without walking it, and only the two neighbouring buckets are checked seat by seat.
+// Each event costs O(1) expected plus the seats reported (or, counting only, the seats in the two
+// neighbouring buckets), memory is O(maxIndexDiff), and nothing is allocated per event.
+public class SeatComfortMonitor {
+
+    // Receives every comfortable pair, identified by the stream positions of the two seats
+    public interface PairListener {
+        void onPair(long first, long second);
+    }
+
+    private static final int NONE = -1;
+
+    private final int maxIndexDiff;
+    private final int maxValueDiff;
+    private final long width;             // Bucket width, maxValueDiff + 1
+    private final PairListener listener;  // null in count-only mode
+
+    private final int ringSize;           // maxIndexDiff + 1: the window plus the slot being replaced
+    private final int[] seats;            // Ring buffer of the window, position p lives in slot p % ringSize
+    private final int[] next;             // Next slot in the same bucket, or NONE
+    private final int[] prev;             // Previous slot in the same bucket, or NONE
+    private final int[] bucketSize;       // Seats in the bucket, kept at the slot heading its list
+    private final LongIntHashMap heads;   // Bucket id -> first slot of its list
+    private long position;                // Stream position of the next seat
+    private long pairs;                   // Pairs found so far
+
+    // Monitor that reports each pair to 'listener'
+    public SeatComfortMonitor(int maxIndexDiff, int maxValueDiff, PairListener listener) {
+        if (maxIndexDiff < 0) {
+            throw new IllegalArgumentException("maxIndexDiff must not be negative: " + maxIndexDiff);
+        }
+        this.maxIndexDiff = maxIndexDiff;
+        this.maxValueDiff = maxValueDiff;
+        this.width = (long) maxValueDiff + 1;
+        this.listener = listener;
+        this.ringSize = maxIndexDiff + 1;
+        this.seats = new int[ringSize];
+        this.next = new int[ringSize];
+        this.prev = new int[ringSize];
+        this.bucketSize = new int[ringSize];
+        this.heads = new LongIntHashMap(maxIndexDiff + 1);
+    }
+
+    // Monitor that only counts pairs
+    public SeatComfortMonitor(int maxIndexDiff, int maxValueDiff) {
+        this(maxIndexDiff, maxValueDiff, null);
+    }
+
+    // Add the next seat of the stream and return how many new pairs it forms
+    public int offer(int seat) {
+        long current = position++;
+        if (maxIndexDiff == 0 || maxValueDiff < 0) {
+            return 0;
+        }
+        int slot = (int) (current % ringSize);
+        // The slot still holds the seat that is now maxIndexDiff + 1 positions back
+        if (current >= ringSize) {
+            unlink(slot, bucketOf(seats[slot]));
+        }
+
+        long bucket = bucketOf(seat);
+        int found = scan(bucket, seat, current, false) + scan(bucket - 1, seat, current, true)
+                + scan(bucket + 1, seat, current, true);
+        pairs += found;
+
+        // Put the new seat at the front of its bucket list
+        seats[slot] = seat;
+        prev[slot] = NONE;
+        int head = heads.slot(bucket);
+        if (head >= 0) {
+            int first = heads.valueAt(head);
+            next[slot] = first;
+            prev[first] = slot;
+            bucketSize[slot] = bucketSize[first] + 1;
+        } else {
+            next[slot] = NONE;
+            bucketSize[slot] = 1;
+        }
+        heads.put(bucket, slot);
+        return found;
+    }
+
+    // Total number of pairs found so far
+    public long pairs() {
+        return pairs;
+    }
+
+    // Number of seats offered so far
+    public long position() {
+        return position;
+    }
+
+    // Report the seats of 'bucket' that pair with 'seat'; neighbouring buckets need a distance check
+    private int scan(long bucket, int seat, long current, boolean checkDistance) {
+        int head = heads.slot(bucket);
+        if (head < 0) {
+            return 0;
+        }
+        if (!checkDistance && listener == null) {
+            return bucketSize[heads.valueAt(head)];
+        }
+        int found = 0;
+        for (int s = heads.valueAt(head); s != NONE; s = next[s]) {
+            if (checkDistance && Math.abs((long) seats[s] - seat) > maxValueDiff) {
+                continue;
+            }
+            found++;
+            if (listener != null) {
+                listener.onPair(positionOf(s, current), current);
+            }
+        }
+        return found;
+    }
+
+    // Stream position of the window seat in 'slot', seen from position 'current'
+    private long positionOf(int slot, long current) {
+        int currentSlot = (int) (current % ringSize);
+        int back = currentSlot - slot;
+        return current - (back > 0 ? back : back + ringSize);
+    }
+
+    private void unlink(int slot, long bucket) {
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
+            bucketSize[heads.valueAt(heads.slot(bucket))]--;
+        } else if (next[slot] != NONE) {
+            heads.put(bucket, next[slot]);
+            bucketSize[next[slot]] = bucketSize[slot] - 1;
+        } else {
+            heads.remove(bucket);
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        }
+    }
+
+    private long bucketOf(int seat) {
+        return Math.floorDiv((long) seat, width);
+    }
+
+    public static void main(String[] args) {
+        int[] feed = {2, 3, 5, 4, 9};
+        SeatComfortMonitor monitor = new SeatComfortMonitor(2, 1,
+                (first, second) -> System.out.println("(" + first + ", " + second + ")"));
+        for (int seat : feed) {
+            monitor.offer(seat);
+        }
+        // Output: (0, 1), (2, 3), (1, 3)
+        System.out.println(monitor.pairs()); // Output: 3
+    }
+}
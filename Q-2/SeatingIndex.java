@@ -0,0 +1,208 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Reusable index over one seating array for answering many TheaterSeating threshold queries.
+//
+// Existence: for every index gap g the index stores the smallest value difference of any pair at most
+// g apart, so "is there a comfortable pair for (k, t)" is a single array lookup. It is built from the
+// pairs that are not dominated by a closer pair with a smaller difference: for each seat j, walking
+// left, only seats whose difference to j at least halves each step can matter, so there are
+// O(n log V) candidates, each found with a max-index segment tree over the sorted values.
+//
+// Counting: the number of pairs for an arbitrary (k, t) cannot be precomputed in less than O(n k)
+// space, so counts are answered with one sliding-window sweep per distinct k, shared by every t asked
+// with that k and run in parallel across the distinct k values.
+public class SeatingIndex {
+    private final int[] seats;
+    private final int[] values;      // Distinct seat values in increasing order
+    private final int[] ranks;       // ranks[i] is the position of seats[i] in 'values'
+    private final long[] minDiff;    // minDiff[g]: smallest value difference of a pair at most g apart
+
+    public SeatingIndex(int[] seats) {
+        this.seats = seats.clone();
+        this.values = Arrays.stream(seats).sorted().distinct().toArray();
+        this.ranks = new int[seats.length];
+        for (int i = 0; i < seats.length; i++) {
+            ranks[i] = Arrays.binarySearch(values, seats[i]);
+        }
+        this.minDiff = buildMinDiff();
+    }
+
+    // Is there a pair at most maxIndexDiff apart whose values differ by at most maxValueDiff? O(1).
+    public boolean hasComfortablePair(int maxIndexDiff, int maxValueDiff) {
+        if (maxIndexDiff <= 0 || maxValueDiff < 0 || seats.length < 2) {
+            return false;
+        }
+        return minDiff[Math.min(maxIndexDiff, seats.length - 1)] <= maxValueDiff;
+    }
+
+    // Answer many existence queries {maxIndexDiff, maxValueDiff} in parallel
+    public boolean[] hasComfortablePairs(int[][] queries) {
+        boolean[] answers = new boolean[queries.length];
+        IntStream.range(0, queries.length).parallel()
+                .forEach(q -> answers[q] = hasComfortablePair(queries[q][0], queries[q][1]));
+        return answers;
+    }
+
+    // Number of pairs at most maxIndexDiff apart whose values differ by at most maxValueDiff
+    public long countComfortablePairs(int maxIndexDiff, int maxValueDiff) {
+        return countComfortablePairs(new int[][] { { maxIndexDiff, maxValueDiff } })[0];
+    }
+
+    // Answer many counting queries {maxIndexDiff, maxValueDiff}; queries sharing a maxIndexDiff share one sweep
+    public long[] countComfortablePairs(int[][] queries) {
+        long[] answers = new long[queries.length];
+        Map<Integer, List<Integer>> byIndexDiff = new HashMap<>();
+        for (int q = 0; q < queries.length; q++) {
+            if (queries[q][0] > 0 && queries[q][1] >= 0) {
+                int k = Math.min(queries[q][0], Math.max(1, seats.length - 1));
+                byIndexDiff.computeIfAbsent(k, key -> new ArrayList<>()).add(q);
+            }
+        }
+        List<Map.Entry<Integer, List<Integer>>> groups = new ArrayList<>(byIndexDiff.entrySet());
+        IntStream.range(0, groups.size()).parallel().forEach(g -> {
+            int k = groups.get(g).getKey();
+            int[] group = groups.get(g).getValue().stream().mapToInt(Integer::intValue).toArray();
+            sweep(k, queries, group, answers);
+        });
+        return answers;
+    }
+
+    // One pass of a window of the last k seats kept in a Fenwick tree over value ranks
+    private void sweep(int k, int[][] queries, int[] group, long[] answers) {
+        int[] tree = new int[values.length + 1];
+        long[] counts = new long[group.length];
+        for (int j = 0; j < seats.length; j++) {
+            if (j > k) {
+                add(tree, ranks[j - k - 1], -1);
+            }
+            for (int g = 0; g < group.length; g++) {
+                long t = queries[group[g]][1];
+                int low = lowerBound(seats[j] - t);
+                int high = lowerBound(seats[j] + t + 1);
+                counts[g] += sum(tree, high) - sum(tree, low);
+            }
+            add(tree, ranks[j], 1);
+        }
+        for (int g = 0; g < group.length; g++) {
+            answers[group[g]] = counts[g];
+        }
+    }
+
+    private long[] buildMinDiff() {
+        int n = seats.length;
+        long[] best = new long[Math.max(n, 1)];
+        Arrays.fill(best, Long.MAX_VALUE);
+
+        // Segment tree over value ranks holding the largest index seen so far with that value
+        int size = 1;
+        while (size < values.length) {
+            size <<= 1;
+        }
+        int[] latest = new int[2 * size];
+        Arrays.fill(latest, -1);
+
+        for (int j = 0; j < n; j++) {
+            long seat = seats[j];
+            // Candidates at or above seat j, each at most half as far in value as the previous one
+            long limit = Long.MAX_VALUE;
+            while (true) {
+                int i = maxIndex(latest, size, ranks[j], lastRankAtMost(limit));
+                if (i < 0) {
+                    break;
+                }
+                long diff = values[ranks[i]] - seat;
+                best[j - i] = Math.min(best[j - i], diff);
+                if (diff == 0) {
+                    break;
+                }
+                limit = seat + diff / 2;
+            }
+            // Candidates strictly below seat j
+            limit = Long.MIN_VALUE;
+            while (ranks[j] > 0) {
+                int i = maxIndex(latest, size, lowerBound(limit), ranks[j] - 1);
+                if (i < 0) {
+                    break;
+                }
+                long diff = seat - values[ranks[i]];
+                best[j - i] = Math.min(best[j - i], diff);
+                limit = seat - diff / 2;
+            }
+            // Record seat j as the latest index of its value
+            for (int node = ranks[j] + size; node > 0; node >>= 1) {
+                latest[node] = j;
+            }
+        }
+
+        // A pair at most g apart is also at most g + 1 apart
+        for (int g = 1; g < best.length; g++) {
+            best[g] = Math.min(best[g], best[g - 1]);
+        }
+        return best;
+    }
+
+    // Largest index stored for value ranks in [from, to], or -1
+    private static int maxIndex(int[] latest, int size, int from, int to) {
+        int result = -1;
+        for (int lo = from + size, hi = to + size + 1; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                result = Math.max(result, latest[lo++]);
+            }
+            if ((hi & 1) == 1) {
+                result = Math.max(result, latest[--hi]);
+            }
+        }
+        return result;
+    }
+
+    // First rank whose value is at least 'value'
+    private int lowerBound(long value) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Last rank whose value is at most 'value'
+    private int lastRankAtMost(long value) {
+        return value == Long.MAX_VALUE ? values.length - 1 : lowerBound(value + 1) - 1;
+    }
+
+    private static void add(int[] tree, int rank, int delta) {
+        for (int i = rank + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Number of window seats with rank below 'rank'
+    private static long sum(int[] tree, int rank) {
+        long total = 0;
+        for (int i = rank; i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+
+    public static void main(String[] args) {
+        int[] seats = {2, 3, 5, 4, 9};
+        SeatingIndex index = new SeatingIndex(seats);
+        System.out.println(index.hasComfortablePair(2, 1));   // Output: true
+        System.out.println(index.hasComfortablePair(1, 0));   // Output: false
+
+        int[][] queries = { { 2, 1 }, { 1, 0 }, { 4, 7 } };
+        System.out.println(Arrays.toString(index.hasComfortablePairs(queries)));   // Output: [true, false, true]
+        System.out.println(Arrays.toString(index.countComfortablePairs(queries))); // Output: [3, 0, 10]
+    }
+}
@@ -1,6 +1,24 @@
+import java.nio.IntBuffer;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TheaterSeating {
+    private static final int STOP_CHECK_MASK = 0xFFF; // How often a parallel scan checks for cancellation
+
+    // Available implementations of areFriendsComfortable
+    public enum Engine {
+        TREE_SET, // Sorted window in a TreeSet<Integer>, O(n log k)
+        BUCKETS   // Value buckets in a primitive hash map, expected O(n) and no per-seat allocation
+    }
+
+    public static boolean areFriendsComfortable(int[] seats, int maxIndexDiff, int maxValueDiff, Engine engine) {
+        switch (engine) {
+            case BUCKETS:
+                return areFriendsComfortableBuckets(seats, maxIndexDiff, maxValueDiff);
+            default:
+                return areFriendsComfortable(seats, maxIndexDiff, maxValueDiff);
+        }
+    }
 
     public static boolean areFriendsComfortable(int[] seats, int maxIndexDiff, int maxValueDiff) {
         // TreeSet to store seat numbers within the allowable range
@@ -27,6 +45,51 @@ public class TheaterSeating {
         return false;
     }
 
+    // Bucket engine: seat values are grouped into buckets of width maxValueDiff + 1, so two seats in
+    // the same bucket are always close enough and only the neighbouring buckets need a real check.
+    // A bucket that already holds a seat of the window means a pair was found, so every bucket holds
+    // at most one seat and the window is evicted by removing the bucket of the seat leaving it.
+    private static boolean areFriendsComfortableBuckets(int[] seats, int maxIndexDiff, int maxValueDiff) {
+        return bucketScan(IntBuffer.wrap(seats), 0, seats.length, maxIndexDiff, maxValueDiff, null);
+    }
+
+    // Bucket scan over seats[from, to) of any IntBuffer, heap or off-heap.
+    // Stops early and returns false once 'stop' is set by another scan; 'stop' may be null.
+    static boolean bucketScan(IntBuffer seats, int from, int to, int maxIndexDiff, int maxValueDiff, AtomicBoolean stop) {
+        if (maxIndexDiff <= 0 || maxValueDiff < 0 || to - from < 2) {
+            return false;
+        }
+        long width = (long) maxValueDiff + 1;
+        LongIntHashMap buckets = new LongIntHashMap(Math.min(to - from, maxIndexDiff) + 1);
+
+        for (int pos = from; pos < to; pos++) {
+            if (stop != null && (pos & STOP_CHECK_MASK) == 0 && stop.get()) {
+                return false;
+            }
+            // Evict the seat that is now too far away by index
+            if (pos - from > maxIndexDiff) {
+                buckets.remove(Math.floorDiv((long) seats.get(pos - maxIndexDiff - 1), width));
+            }
+
+            long seat = seats.get(pos);
+            long bucket = Math.floorDiv(seat, width);
+            if (buckets.containsKey(bucket)) {
+                return true;
+            }
+            int lower = buckets.slot(bucket - 1);
+            if (lower >= 0 && seat - buckets.valueAt(lower) <= maxValueDiff) {
+                return true;
+            }
+            int upper = buckets.slot(bucket + 1);
+            if (upper >= 0 && buckets.valueAt(upper) - seat <= maxValueDiff) {
+                return true;
+            }
+
+            buckets.put(bucket, (int) seat);
+        }
+        return false;
+    }
+
     public static void main(String[] args) {
         int[] seats = {2, 3, 5, 4, 9};
         int maxIndexDiff = 2;
@@ -34,5 +97,8 @@ public class TheaterSeating {
         
         boolean result = areFriendsComfortable(seats, maxIndexDiff, maxValueDiff);
         System.out.println(result); // Output: true
+
+        // Same question on the bucket engine
+        System.out.println(areFriendsComfortable(seats, maxIndexDiff, maxValueDiff, Engine.BUCKETS)); // Output: true
     }
 }
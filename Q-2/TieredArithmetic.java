@@ -0,0 +1,81 @@
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+// Slow tier of the calculator arithmetic. ExpressionEvaluator and CompiledExpression work on primitive
+// longs with the overflow tests of Math.*Exact and only call in here once an operation overflowed or
+// divided inexactly. Results are demoted back to Long whenever they fit, so the rest of the expression
+// returns to the primitive path.
+final class TieredArithmetic {
+    // Precision used when a division does not terminate, e.g. 1/3
+    static final MathContext DIVISION_CONTEXT = MathContext.DECIMAL128;
+
+    private TieredArithmetic() {
+    }
+
+    // Apply 'op' to two values that are Long, BigInteger or BigDecimal
+    static Number apply(char op, Number a, Number b) {
+        if (a instanceof BigDecimal || b instanceof BigDecimal || op == '/') {
+            return applyDecimal(op, toDecimal(a), toDecimal(b));
+        }
+        BigInteger x = toInteger(a);
+        BigInteger y = toInteger(b);
+        switch (op) {
+            case '+':
+                return demote(x.add(y));
+            case '-':
+                return demote(x.subtract(y));
+            default:
+                return demote(x.multiply(y));
+        }
+    }
+
+    private static Number applyDecimal(char op, BigDecimal x, BigDecimal y) {
+        switch (op) {
+            case '+':
+                return demote(x.add(y));
+            case '-':
+                return demote(x.subtract(y));
+            case '*':
+                return demote(x.multiply(y));
+            default:
+                if (y.signum() == 0)
+                    throw new UnsupportedOperationException("Cannot divide by zero");
+                try {
+                    return demote(x.divide(y));
+                } catch (ArithmeticException nonTerminating) {
+                    return demote(x.divide(y, DIVISION_CONTEXT));
+                }
+        }
+    }
+
+    // Smallest representation of 'value': Long when it fits, BigInteger otherwise
+    static Number demote(BigInteger value) {
+        return value.bitLength() < Long.SIZE ? (Number) value.longValue() : value;
+    }
+
+    // Smallest representation of 'value': an integral result goes back to the integer tiers
+    static Number demote(BigDecimal value) {
+        if (value.signum() == 0) {
+            return 0L;
+        }
+        BigDecimal stripped = value.stripTrailingZeros();
+        return stripped.scale() <= 0 ? demote(stripped.toBigIntegerExact()) : stripped;
+    }
+
+    static BigInteger toInteger(Number value) {
+        return value instanceof BigInteger ? (BigInteger) value : BigInteger.valueOf(value.longValue());
+    }
+
+    static BigDecimal toDecimal(Number value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return value instanceof BigInteger ? new BigDecimal((BigInteger) value) : BigDecimal.valueOf(value.longValue());
+    }
+
+    // Text shown for a result: plain digits, without exponent notation
+    static String format(Number value) {
+        return value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+// Read-only view of BusBoardingOptimization.optimizeBoarding that never copies the passengers.
+// Position i of the reordered sequence comes from a source index computed arithmetically: inside a
+// full group of 'interval' passengers the index is mirrored around the group, and the partial tail
+// group maps to itself. The view only holds a reference to the source, so it costs O(1) memory and
+// reflects later changes to the source.
+//
+// Random access, iteration and the list spliterator all go through get(i). With a RandomAccess source
+// every read is O(1) and the default spliterator splits evenly for parallel streams; intStream()
+// does the same without boxing for int[] sources.
+public class BoardingView extends AbstractList<Integer> implements RandomAccess {
+    private final IntUnaryOperator source;  // Reads the source passenger at an index
+    private final int size;
+    private final int interval;
+    private final int groupedEnd;           // End of the last full group; later positions are unchanged
+
+    private BoardingView(IntUnaryOperator source, int size, int interval) {
+        this.source = source;
+        this.size = size;
+        this.interval = Math.max(1, interval);
+        this.groupedEnd = size - size % this.interval;
+    }
+
+    // View over a primitive array
+    public static BoardingView of(int[] passengers, int interval) {
+        return new BoardingView(i -> passengers[i], passengers.length, interval);
+    }
+
+    // View over a list; reads are O(1) only if the list is RandomAccess
+    public static BoardingView of(List<Integer> passengers, int interval) {
+        return new BoardingView(passengers::get, passengers.size(), interval);
+    }
+
+    // Maps a position of the reordered sequence to its index in a source of 'size' passengers
+    public static IntUnaryOperator sourceIndex(int size, int interval) {
+        int k = Math.max(1, interval);
+        int groupedEnd = size - size % k;
+        return i -> i < groupedEnd ? 2 * (i - i % k) + k - 1 - i : i;
+    }
+
+    // Index in the source of position 'i' of the reordered sequence
+    public int sourceIndexOf(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+        if (i >= groupedEnd) {
+            return i;
+        }
+        int start = i - i % interval;
+        return start + interval - 1 - (i - start);
+    }
+
+    // Passenger at position 'i' of the reordered sequence, without boxing
+    public int getInt(int i) {
+        return source.applyAsInt(sourceIndexOf(i));
+    }
+
+    @Override
+    public Integer get(int i) {
+        return getInt(i);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Unboxed stream of the reordered sequence; sized, so it splits evenly when parallel
+    public IntStream intStream() {
+        return IntStream.range(0, size).map(this::getInt);
+    }
+
+    public static void main(String[] args) {
+        int[] passengers = {1, 2, 3, 4, 5};
+        BoardingView view = BoardingView.of(passengers, 2);
+        System.out.println(view);           // Output: [2, 1, 4, 3, 5]
+        System.out.println(view.get(1));    // Output: 1
+
+        System.out.println(BoardingView.of(Arrays.asList(1, 2, 3, 4, 5), 3)); // Output: [3, 2, 1, 4, 5]
+
+        // Sum of the reordered sequence in parallel, without materializing it
+        int[] manifest = IntStream.rangeClosed(1, 1_000_000).toArray();
+        System.out.println(BoardingView.of(manifest, 7).intStream().parallel().asLongStream().sum()); // Output: 500000500000
+    }
+}
@@ -1,10 +1,17 @@
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.IntStream;
 
 public class BusBoardingOptimization {
 
+    // Inputs with at least this many passengers reverse their groups in parallel
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Passengers handled by one parallel task
+    private static final int PARALLEL_BLOCK = 1 << 14;
+
     // Method to reverse segments of a list in groups of size 'k'
     public static List<Integer> optimizeBoarding(List<Integer> passengers, int interval) {
         // Result list to store the final arrangement of passengers
@@ -33,6 +40,59 @@ public class BusBoardingOptimization {
         }
     }
 
+    // Lazy version: a read-only view that computes each position on demand instead of copying
+    public static List<Integer> optimizeBoardingView(List<Integer> passengers, int interval) {
+        return BoardingView.of(passengers, interval);
+    }
+
+    // Primitive version: returns a reordered copy and leaves 'passengers' untouched
+    public static int[] optimizeBoarding(int[] passengers, int interval) {
+        int[] optimized = passengers.clone();
+        optimizeBoardingInPlace(optimized, interval);
+        return optimized;
+    }
+
+    // Reorder 'passengers' in place, without copying
+    public static void optimizeBoardingInPlace(int[] passengers, int interval) {
+        optimizeBoardingInPlace(IntBuffer.wrap(passengers), interval);
+    }
+
+    // Reorder the passengers between the buffer's position and limit in place.
+    // The buffer may be a heap, direct or memory-mapped buffer; its position is not changed.
+    public static void optimizeBoardingInPlace(IntBuffer passengers, int interval) {
+        if (interval <= 1) {
+            return; // Groups of one are already in order
+        }
+        IntBuffer view = passengers.slice();
+        int groups = view.limit() / interval;
+        if (view.limit() < PARALLEL_THRESHOLD) {
+            reverseGroups(view, interval, 0, groups);
+            return;
+        }
+        // Groups are independent, so blocks of whole groups can be reversed on different cores
+        int groupsPerBlock = Math.max(1, PARALLEL_BLOCK / interval);
+        int blocks = (groups + groupsPerBlock - 1) / groupsPerBlock;
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int first = b * groupsPerBlock;
+            reverseGroups(view, interval, first, Math.min(groups, first + groupsPerBlock));
+        });
+    }
+
+    // Reverse the groups [firstGroup, endGroup) of size 'interval'
+    private static void reverseGroups(IntBuffer passengers, int interval, int firstGroup, int endGroup) {
+        for (int group = firstGroup; group < endGroup; group++) {
+            int start = group * interval;
+            int end = start + interval - 1;
+            while (start < end) {
+                int swap = passengers.get(start);
+                passengers.put(start, passengers.get(end));
+                passengers.put(end, swap);
+                start++;
+                end--;
+            }
+        }
+    }
+
     public static void main(String[] args) {
         // Example 1
         List<Integer> boardingSequence1 = Arrays.asList(1, 2, 3, 4, 5);
@@ -45,5 +105,11 @@ public class BusBoardingOptimization {
         int interval2 = 3;
         System.out.println("Optimized Boarding Sequence 2: " + optimizeBoarding(boardingSequence2, interval2));
         // Output: [3, 2, 1, 4, 5]
+
+        // Example 3: primitive array, reordered in place
+        int[] boardingSequence3 = {1, 2, 3, 4, 5};
+        optimizeBoardingInPlace(boardingSequence3, 2);
+        System.out.println("Optimized Boarding Sequence 3: " + Arrays.toString(boardingSequence3));
+        // Output: [2, 1, 4, 3, 5]
     }
 }
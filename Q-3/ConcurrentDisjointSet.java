@@ -0,0 +1,74 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+// Lock-free union-find for building a partition from many threads at once.
+// Parents live in an AtomicIntegerArray and every link is a compareAndSet on a root, so concurrent
+// unions never lose an edge. Roots are linked by index (the larger index points to the smaller one),
+// which keeps every parent index at most its child's and rules out cycles without a rank array.
+// find is iterative with path halving; a halving step that loses its race is simply skipped, since any
+// ancestor is still a valid parent.
+public class ConcurrentDisjointSet {
+    private final AtomicIntegerArray parent;
+
+    public ConcurrentDisjointSet(int size) {
+        parent = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    public int size() {
+        return parent.length();
+    }
+
+    // Root of the set containing 'node' at some moment during the call
+    public int find(int node) {
+        while (true) {
+            int up = parent.get(node);
+            if (up == node) {
+                return node;
+            }
+            int grandparent = parent.get(up);
+            if (up != grandparent) {
+                parent.compareAndSet(node, up, grandparent);
+            }
+            node = grandparent;
+        }
+    }
+
+    // Merge the sets containing 'node1' and 'node2'; returns false if they were already merged
+    public boolean union(int node1, int node2) {
+        while (true) {
+            int root1 = find(node1);
+            int root2 = find(node2);
+            if (root1 == root2) {
+                return false;
+            }
+            int child = Math.max(root1, root2);
+            // Fails only if 'child' stopped being a root meanwhile; then retry from the new roots
+            if (parent.compareAndSet(child, child, Math.min(root1, root2))) {
+                return true;
+            }
+        }
+    }
+
+    // Union every pair of 'edges' using all cores
+    public void unionAll(int[][] edges) {
+        IntStream.range(0, edges.length).parallel().forEach(i -> union(edges[i][0], edges[i][1]));
+    }
+
+    // Root of every node, computed in parallel. Only meaningful once no union is running.
+    public int[] roots() {
+        int[] roots = new int[parent.length()];
+        IntStream.range(0, roots.length).parallel().forEach(i -> roots[i] = find(i));
+        return roots;
+    }
+
+    public static void main(String[] args) {
+        int[][] edges = {{0, 1}, {1, 2}, {3, 4}};
+        ConcurrentDisjointSet set = new ConcurrentDisjointSet(6);
+        set.unionAll(edges);
+        System.out.println(Arrays.toString(set.roots())); // Output: [0, 0, 0, 3, 3, 5]
+    }
+}
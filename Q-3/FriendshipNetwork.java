@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Friendship network that enforces restrictions between whole friend groups.
+// Only approved friendships are unioned. Every group root keeps the set of group roots it may not join,
+// built from the restrictions of all its members, so a request is a single set lookup: it is denied if
+// the two groups restrict each other, even when neither requesting house holds the restriction itself.
+// On an approved union the smaller restriction set is merged into the larger one, and the groups that
+// referred to the absorbed root are repointed to the surviving root. Each restriction entry is moved
+// O(log n) times in total, so n houses and m requests take about O((n + m) log n) expected time.
+public class FriendshipNetwork {
+    private final int[] parent;               // parent[i] == i for a group root
+    private final int[] size;                 // Houses in the group, valid for roots
+    private final IntHashSet[] blocked;       // Roots restricted from each root; null when empty
+
+    public FriendshipNetwork(int numHouses, int[][] restrictions) {
+        parent = new int[numHouses];
+        size = new int[numHouses];
+        blocked = new IntHashSet[numHouses];
+        for (int i = 0; i < numHouses; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        for (int[] restriction : restrictions) {
+            if (restriction[0] != restriction[1]) {
+                blockedOf(restriction[0]).add(restriction[1]);
+                blockedOf(restriction[1]).add(restriction[0]);
+            }
+        }
+    }
+
+    // Root of the group containing 'house'; iterative with path halving
+    public int find(int house) {
+        while (parent[house] != house) {
+            parent[house] = parent[parent[house]];
+            house = parent[house];
+        }
+        return house;
+    }
+
+    public boolean areFriends(int houseA, int houseB) {
+        return find(houseA) == find(houseB);
+    }
+
+    // Approve the request and merge the two groups unless they restrict each other
+    public boolean request(int houseA, int houseB) {
+        int rootA = find(houseA);
+        int rootB = find(houseB);
+        if (rootA == rootB) {
+            return true; // Already in the same group
+        }
+        // Restrictions are symmetric, so looking in the smaller set is enough
+        boolean smallerIsA = setSize(rootA) <= setSize(rootB);
+        IntHashSet smaller = blocked[smallerIsA ? rootA : rootB];
+        if (smaller != null && smaller.contains(smallerIsA ? rootB : rootA)) {
+            return false;
+        }
+        union(rootA, rootB);
+        return true;
+    }
+
+    // Evaluate the requests in order
+    public List<String> evaluate(int[][] requests) {
+        List<String> result = new ArrayList<>(requests.length);
+        for (int[] request : requests) {
+            result.add(request(request[0], request[1]) ? "approved" : "denied");
+        }
+        return result;
+    }
+
+    public static List<String> evaluateRequests(int numHouses, int[][] restrictions, int[][] requests) {
+        return new FriendshipNetwork(numHouses, restrictions).evaluate(requests);
+    }
+
+    // Merge two distinct roots that do not restrict each other
+    private void union(int rootA, int rootB) {
+        // Keep the root with the larger restriction set so the smaller set is the one that moves
+        if (setSize(rootA) < setSize(rootB)) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+
+        IntHashSet moved = blocked[rootB];
+        if (moved == null) {
+            return;
+        }
+        blocked[rootB] = null;
+        IntHashSet kept = blockedOf(rootA);
+        int survivor = rootA;
+        int absorbed = rootB;
+        moved.forEach(other -> {
+            // 'other' is a root restricted from the absorbed root; it now refers to the survivor instead
+            IntHashSet back = blocked[other];
+            back.remove(absorbed);
+            back.add(survivor);
+            kept.add(other);
+        });
+    }
+
+    private int setSize(int root) {
+        IntHashSet set = blocked[root];
+        return set == null ? 0 : set.size();
+    }
+
+    private IntHashSet blockedOf(int root) {
+        IntHashSet set = blocked[root];
+        if (set == null) {
+            set = new IntHashSet();
+            blocked[root] = set;
+        }
+        return set;
+    }
+
+    public static void main(String[] args) {
+        int[][] restrictions = {{0, 1}, {1, 2}, {2, 3}};
+        int[][] requests = {{0, 4}, {1, 2}, {3, 1}, {3, 4}};
+        System.out.println(evaluateRequests(5, restrictions, requests)); // Output: [approved, denied, approved, denied]
+
+        // 1M houses, 1M random restrictions and requests
+        int n = 1_000_000;
+        Random random = new Random(42);
+        int[][] manyRestrictions = new int[n][];
+        int[][] manyRequests = new int[n][];
+        for (int i = 0; i < n; i++) {
+            manyRestrictions[i] = new int[] {random.nextInt(n), random.nextInt(n)};
+            manyRequests[i] = new int[] {random.nextInt(n), random.nextInt(n)};
+        }
+        long start = System.nanoTime();
+        long approved = evaluateRequests(n, manyRestrictions, manyRequests).stream().filter("approved"::equals).count();
+        System.out.println(approved + " approved in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
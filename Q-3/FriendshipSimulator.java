@@ -0,0 +1,66 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// What-if evaluation of friend requests on top of one shared HouseFriendship state.
+// The restrictions are ingested once; the union-find then runs in rollback mode, so a scenario applies
+// its speculative requests, evaluates the later ones and undoes every union it made in O(unions)
+// instead of rebuilding the structure. Requests are decided exactly as in
+// HouseFriendship.evaluateRequests.
+public class FriendshipSimulator {
+    private final HouseFriendship.DisjointSet ds;
+    private final RestrictionIndex restrictionIndex;
+
+    public FriendshipSimulator(int numHouses, int[][] restrictions) {
+        this.ds = HouseFriendship.ingestRestrictions(numHouses, restrictions);
+        this.restrictionIndex = RestrictionIndex.build(numHouses, restrictions);
+        ds.enableRollback();
+    }
+
+    // Decide the requests in order and keep the approved ones
+    public List<String> evaluate(int[][] requests) {
+        List<String> result = new ArrayList<>(requests.length);
+        for (int[] request : requests) {
+            boolean approved = HouseFriendship.evaluateRequest(ds, restrictionIndex, request[0], request[1]);
+            result.add(approved ? "approved" : "denied");
+        }
+        return result;
+    }
+
+    // Connect the houses of every friendship without checking restrictions
+    public void approve(int[][] friendships) {
+        for (int[] friendship : friendships) {
+            ds.union(friendship[0], friendship[1]);
+        }
+    }
+
+    // Marker for rollback(); everything applied after it can be undone
+    public int checkpoint() {
+        return ds.checkpoint();
+    }
+
+    public void rollback(int checkpoint) {
+        ds.rollback(checkpoint);
+    }
+
+    // "If 'approved' were granted, how would 'later' be decided?" The state is left unchanged.
+    public List<String> whatIf(int[][] approved, int[][] later) {
+        int checkpoint = checkpoint();
+        try {
+            approve(approved);
+            return evaluate(later);
+        } finally {
+            rollback(checkpoint);
+        }
+    }
+
+    public static void main(String[] args) {
+        int[][] restrictions = {{0, 1}, {1, 2}, {2, 3}};
+        FriendshipSimulator simulator = new FriendshipSimulator(6, restrictions);
+        int[][] later = {{0, 5}, {4, 5}};
+
+        System.out.println(simulator.evaluate(new int[][] {{0, 4}})); // Output: [approved]
+        System.out.println(simulator.whatIf(new int[][] {{3, 5}}, later)); // Output: [denied, approved]
+        // The scenario was rolled back, so 5 is still on its own
+        System.out.println(simulator.evaluate(later)); // Output: [approved, approved]
+    }
+}
@@ -0,0 +1,242 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Persistent HouseFriendship state that restarts without replaying the restriction list and the
+// request history. A directory holds three files:
+//   friendship.restrictions  the RestrictionIndex, written once by create() and memory-mapped by open()
+//   friendship.snapshot      the union-find parent/rank arrays of one generation
+//   friendship.log           every approved request that merged two groups since that snapshot
+// Opening maps the restriction index (used in place, without copying), reads the snapshot and replays
+// only the log. The restrictions never change, so snapshots only rewrite the union-find arrays, and
+// the mapped file is never replaced. The snapshot and log start with a generation number; snapshot()
+// writes the next generation and then starts a new log, each through a temporary file and an atomic
+// rename, and forces the directory after each rename so the new snapshot is on disk before the new
+// log replaces the old one. Neither is mapped, so replacing them works on every platform, and a crash
+// at any point leaves a snapshot plus either its own log or an older one whose unions the snapshot
+// already holds.
+// A log record cut short by a crash is dropped. Appends reach the operating system immediately;
+// sync() forces them to disk.
+public class FriendshipStore implements Closeable {
+    private static final int SNAPSHOT_MAGIC = 0x48465348;  // "HFSH"
+    private static final int LOG_MAGIC = 0x48464c47;       // "HFLG"
+    private static final int VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int LOG_HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+    private static final int RECORD_BYTES = 2 * Integer.BYTES;  // houseA, houseB
+    private static final int IO_BUFFER_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final HouseFriendship.DisjointSet ds;
+    private final RestrictionIndex restrictionIndex;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private long generation;
+    private FileChannel log;
+
+    private FriendshipStore(Path directory, HouseFriendship.DisjointSet ds, RestrictionIndex restrictionIndex,
+            long generation) {
+        this.directory = directory;
+        this.snapshotFile = directory.resolve("friendship.snapshot");
+        this.logFile = directory.resolve("friendship.log");
+        this.ds = ds;
+        this.restrictionIndex = restrictionIndex;
+        this.generation = generation;
+    }
+
+    // Build the state from the restrictions and persist it in 'directory': the restriction index once,
+    // and the union-find as the first snapshot
+    public static FriendshipStore create(Path directory, int numHouses, int[][] restrictions) throws IOException {
+        Files.createDirectories(directory);
+        RestrictionIndex restrictionIndex = RestrictionIndex.build(numHouses, restrictions);
+        restrictionIndex.write(directory.resolve("friendship.restrictions"));
+        FriendshipStore store = new FriendshipStore(directory,
+                HouseFriendship.ingestRestrictions(numHouses, restrictions), restrictionIndex, 0);
+        store.snapshot();
+        return store;
+    }
+
+    // Map the restriction index in 'directory', read its snapshot and replay its log
+    public static FriendshipStore open(Path directory) throws IOException {
+        RestrictionIndex restrictionIndex = RestrictionIndex.map(directory.resolve("friendship.restrictions"));
+        Path snapshotFile = directory.resolve("friendship.snapshot");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+        HouseFriendship.DisjointSet ds;
+        long generation;
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            buffer.limit(SNAPSHOT_HEADER_BYTES);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // Fill the header
+            }
+            buffer.flip();
+            if (buffer.remaining() < SNAPSHOT_HEADER_BYTES || buffer.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a friendship snapshot: " + snapshotFile);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported friendship snapshot version " + version);
+            }
+            generation = buffer.getLong();
+            int numHouses = buffer.getInt();
+            if (numHouses != restrictionIndex.houses()
+                    || channel.size() != SNAPSHOT_HEADER_BYTES + 2L * numHouses * Integer.BYTES) {
+                throw new IOException("Friendship snapshot does not match its restriction index: " + snapshotFile);
+            }
+            ds = HouseFriendship.DisjointSet.readFrom(channel, numHouses, buffer);
+        }
+
+        FriendshipStore store = new FriendshipStore(directory, ds, restrictionIndex, generation);
+        store.replayLog();
+        return store;
+    }
+
+    // Decide a friend request as HouseFriendship.evaluateRequests does and log it if it merged two groups
+    public boolean request(int houseA, int houseB) throws IOException {
+        boolean merges = ds.find(houseA) != ds.find(houseB);
+        boolean approved = HouseFriendship.evaluateRequest(ds, restrictionIndex, houseA, houseB);
+        if (approved && merges) {
+            record.clear();
+            record.putInt(houseA).putInt(houseB).flip();
+            while (record.hasRemaining()) {
+                log.write(record);
+            }
+        }
+        return approved;
+    }
+
+    public boolean areFriends(int houseA, int houseB) {
+        return ds.find(houseA) == ds.find(houseB);
+    }
+
+    // Force the logged requests to disk
+    public void sync() throws IOException {
+        log.force(false);
+    }
+
+    // Write the union-find as a new snapshot and start an empty log for it
+    public void snapshot() throws IOException {
+        long next = generation + 1;
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES);
+            header.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(next).putInt(ds.size()).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            ds.writeTo(channel, ByteBuffer.allocateDirect(IO_BUFFER_BYTES));
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        generation = next;
+        startLog();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    // Replay the log if it belongs to this snapshot, otherwise start a new one
+    private void replayLog() throws IOException {
+        if (!Files.exists(logFile)) {
+            startLog();
+            return;
+        }
+        FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean current = false;
+            if (channel.size() >= LOG_HEADER_BYTES) {
+                ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, LOG_HEADER_BYTES);
+                current = header.getInt() == LOG_MAGIC && header.getInt() == VERSION && header.getLong() == generation;
+            }
+            if (!current) {
+                // A log from before the snapshot: the snapshot already contains its unions
+                channel.close();
+                startLog();
+                return;
+            }
+
+            long records = (channel.size() - LOG_HEADER_BYTES) / RECORD_BYTES;
+            long end = LOG_HEADER_BYTES + records * RECORD_BYTES;
+            if (records > 0) {
+                MappedByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, LOG_HEADER_BYTES,
+                        end - LOG_HEADER_BYTES);
+                while (tail.hasRemaining()) {
+                    ds.union(tail.getInt(), tail.getInt());
+                }
+            }
+            channel.truncate(end);  // Drop a record cut short by a crash
+            channel.position(end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        log = channel;
+    }
+
+    // Atomically replace the log with an empty one for the current generation
+    private void startLog() throws IOException {
+        close();
+        Path temporary = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+            header.putInt(LOG_MAGIC).putInt(VERSION).putLong(generation).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        log = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Make the renames in the directory durable. Windows cannot open a directory as a channel; its file
+    // systems journal renames themselves.
+    private void syncDirectory() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (AccessDeniedException e) {
+            return;
+        }
+        try (FileChannel opened = channel) {
+            opened.force(true);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("friendship");
+        try {
+            int[][] restrictions = {{0, 1}, {1, 2}, {2, 3}};
+            try (FriendshipStore store = create(directory, 5, restrictions)) {
+                System.out.println(store.request(0, 4)); // Output: true
+            }
+            // Restart: the restrictions are mapped, the snapshot is read and only the logged request is replayed
+            try (FriendshipStore store = open(directory)) {
+                System.out.println(store.areFriends(3, 4)); // Output: true
+                store.snapshot();
+                System.out.println(store.request(3, 1)); // Output: false
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+}
@@ -1,19 +1,28 @@
 // Import the java.util package for using lists, maps, sets, etc.
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 public class HouseFriendship {
 
+    // Restriction lists at least this long are ingested on all cores
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
     // Union-Find class to manage groups of connected houses
     static class DisjointSet {
         private int[] parent;  // Array to store the parent of each node (house)
         private int[] rank;    // Array to store the rank (depth) of each tree
 
+        // Rollback mode: no path compression, and every link is recorded so it can be undone
+        private boolean rollback;
+        private int[] undoLog = new int[0];  // Linked root << 1, plus 1 if its new parent's rank was raised
+        private int undoSize;
+
         // Constructor to initialize the Union-Find data structure
         public DisjointSet(int size) {
             parent = new int[size];  // Initialize the parent array with the size of houses
@@ -24,12 +33,110 @@ public class HouseFriendship {
             }
         }
 
+        private DisjointSet(int[] parent, int[] rank) {
+            this.parent = parent;
+            this.rank = rank;
+        }
+
+        // Number of nodes (houses)
+        int size() {
+            return parent.length;
+        }
+
+        // Write the parent and rank arrays to 'out', staged through 'buffer' so no full copy is made
+        void writeTo(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+            writeInts(parent, out, buffer);
+            writeInts(rank, out, buffer);
+        }
+
+        // Read 'size' nodes written by writeTo() from 'in', staged through 'buffer'
+        static DisjointSet readFrom(ReadableByteChannel in, int size, ByteBuffer buffer) throws IOException {
+            int[] parent = new int[size];
+            int[] rank = new int[size];
+            readInts(parent, in, buffer);
+            readInts(rank, in, buffer);
+            return new DisjointSet(parent, rank);
+        }
+
+        private static void writeInts(int[] values, WritableByteChannel out, ByteBuffer buffer) throws IOException {
+            for (int i = 0; i < values.length; ) {
+                buffer.clear();
+                int count = Math.min(values.length - i, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, i, count);
+                buffer.limit(count * Integer.BYTES);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                i += count;
+            }
+        }
+
+        private static void readInts(int[] values, ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+            for (int i = 0; i < values.length; ) {
+                buffer.clear();
+                buffer.limit(Math.min(values.length - i, buffer.capacity() / Integer.BYTES) * Integer.BYTES);
+                while (buffer.hasRemaining()) {
+                    if (in.read(buffer) == -1) {
+                        throw new EOFException("Union-find state ends after " + i + " of " + values.length + " values");
+                    }
+                }
+                buffer.flip();
+                int count = buffer.remaining() / Integer.BYTES;
+                buffer.asIntBuffer().get(values, i, count);
+                i += count;
+            }
+        }
+
+        // Build from the root of every node, e.g. from ConcurrentDisjointSet.roots()
+        static DisjointSet fromRoots(int[] roots) {
+            DisjointSet ds = new DisjointSet(roots.length);
+            for (int i = 0; i < roots.length; i++) {
+                ds.parent[i] = roots[i];
+                if (roots[i] != i) {
+                    ds.rank[roots[i]] = 2;  // Every tree is flat: a root with children has depth 2
+                }
+            }
+            return ds;
+        }
+
+        // Switch to rollback mode. Union by rank alone keeps trees O(log n) deep, so find stays cheap
+        // without path compression, and each union changes only one parent and at most one rank.
+        void enableRollback() {
+            rollback = true;
+        }
+
+        // Position in the undo log to return to with rollback()
+        int checkpoint() {
+            return undoSize;
+        }
+
+        // Undo every union made since 'checkpoint', newest first; O(unions undone)
+        void rollback(int checkpoint) {
+            while (undoSize > checkpoint) {
+                int entry = undoLog[--undoSize];
+                int child = entry >>> 1;
+                if ((entry & 1) != 0) {
+                    rank[parent[child]]--;
+                }
+                parent[child] = child;
+            }
+        }
+
         // Method to find the root of the set containing 'node'
         public int find(int node) {
-            if (parent[node] != node) {  // If the node is not its own parent, it means it's not the root
-                parent[node] = find(parent[node]); // Recursively find the root and apply path compression
+            int root = node;
+            while (parent[root] != root) {  // Walk up until the node that is its own parent (the root)
+                root = parent[root];
             }
-            return parent[node];  // Return the root of the node
+            if (rollback) {
+                return root;  // Path compression would change parents that the undo log does not record
+            }
+            while (parent[node] != root) {  // Second pass: path compression, point every node on the path at the root
+                int next = parent[node];
+                parent[node] = root;
+                node = next;
+            }
+            return root;  // Return the root of the node
         }
 
         // Method to union (merge) two sets containing 'node1' and 'node2'
@@ -39,58 +146,91 @@ public class HouseFriendship {
             if (root1 != root2) {  // If they are not in the same set, merge them
                 if (rank[root1] > rank[root2]) {  // If root1 has a higher rank, make root1 the parent of root2
                     parent[root2] = root1;
+                    record(root2, false);
                 } else if (rank[root1] < rank[root2]) {  // If root2 has a higher rank, make root2 the parent of root1
                     parent[root1] = root2;
+                    record(root1, false);
                 } else {  // If they have the same rank, choose one as the parent and increment its rank
                     parent[root2] = root1;
                     rank[root1]++;
+                    record(root2, true);
                 }
             }
         }
+
+        private void record(int child, boolean rankRaised) {
+            if (!rollback) {
+                return;
+            }
+            if (undoSize == undoLog.length) {
+                undoLog = Arrays.copyOf(undoLog, Math.max(16, undoSize * 2));
+            }
+            undoLog[undoSize++] = (child << 1) | (rankRaised ? 1 : 0);
+        }
     }
 
-    // Method to evaluate friend requests based on restrictions and the current friendship network
-    public static List<String> evaluateRequests(int numHouses, int[][] restrictions, int[][] requests) {
-        DisjointSet ds = new DisjointSet(numHouses);  // Create a Union-Find structure for the houses
+    // Ways to evaluate the friend requests
+    public enum Engine {
+        RESTRICTION_MAP, // Direct restrictions of the requesting house, looked up in a RestrictionIndex
+        COMPONENTS       // Restrictions of every member of both groups, see FriendshipNetwork
+    }
 
-        // Loop through each restriction to union the restricted houses
-        for (int[] restriction : restrictions) {
-            ds.union(restriction[0], restriction[1]);  // Union the two restricted houses
+    public static List<String> evaluateRequests(int numHouses, int[][] restrictions, int[][] requests, Engine engine) {
+        switch (engine) {
+            case COMPONENTS:
+                return FriendshipNetwork.evaluateRequests(numHouses, restrictions, requests);
+            default:
+                return evaluateRequests(numHouses, restrictions, requests);
         }
+    }
 
-        // Create a map to track restricted pairs
-        Map<Integer, Set<Integer>> restrictionMap = new HashMap<>();
-        for (int[] restriction : restrictions) {
-            // Add each restriction to the map for quick lookup
-            restrictionMap.computeIfAbsent(restriction[0], k -> new HashSet<>()).add(restriction[1]);
-            restrictionMap.computeIfAbsent(restriction[1], k -> new HashSet<>()).add(restriction[0]);
-        }
+    // Method to evaluate friend requests based on restrictions and the current friendship network
+    public static List<String> evaluateRequests(int numHouses, int[][] restrictions, int[][] requests) {
+        DisjointSet ds = ingestRestrictions(numHouses, restrictions);  // Union-Find structure for the houses
+        RestrictionIndex restrictionIndex = RestrictionIndex.build(numHouses, restrictions);  // Restricted pairs
 
         List<String> result = new ArrayList<>();  // List to store the results of the friend requests
 
         // Loop through each friend request
         for (int[] request : requests) {
-            int houseA = request[0];  // Extract the first house in the request
-            int houseB = request[1];  // Extract the second house in the request
+            boolean approved = evaluateRequest(ds, restrictionIndex, request[0], request[1]);
+            result.add(approved ? "approved" : "denied");  // Add the result of the request to the list
+        }
 
-            if (ds.find(houseA) == ds.find(houseB)) {  // If both houses are in the same group
-                boolean canBeFriends = true;  // Assume the request can be approved
+        return result;  // Return the list of results for all friend requests
+    }
 
-                // Check all houses connected to houseA for any indirect restriction
-                for (int restrictedHouse : restrictionMap.getOrDefault(houseA, Collections.emptySet())) {
-                    if (ds.find(restrictedHouse) == ds.find(houseB)) {  // If houseB is connected to a restricted house
-                        canBeFriends = false;  // The request must be denied
-                        break;  // Exit the loop as the request cannot be approved
-                    }
+    // Union the restricted houses of every restriction
+    static DisjointSet ingestRestrictions(int numHouses, int[][] restrictions) {
+        if (restrictions.length >= PARALLEL_THRESHOLD) {
+            // The unions commute, so a large restriction list is ingested in parallel
+            ConcurrentDisjointSet concurrent = new ConcurrentDisjointSet(numHouses);
+            concurrent.unionAll(restrictions);
+            return DisjointSet.fromRoots(concurrent.roots());
+        }
+        DisjointSet ds = new DisjointSet(numHouses);
+        // Loop through each restriction to union the restricted houses
+        for (int[] restriction : restrictions) {
+            ds.union(restriction[0], restriction[1]);  // Union the two restricted houses
+        }
+        return ds;
+    }
+
+    // Decide one friend request, and connect the two houses if it is approved
+    static boolean evaluateRequest(DisjointSet ds, RestrictionIndex restrictionIndex, int houseA, int houseB) {
+        int rootB = ds.find(houseB);
+        if (ds.find(houseA) == rootB) {  // If both houses are in the same group
+            // Check all houses connected to houseA for any indirect restriction
+            for (int i = restrictionIndex.start(houseA); i < restrictionIndex.end(houseA); i++) {
+                if (ds.find(restrictionIndex.neighbourAt(i)) == rootB) {  // If houseB is connected to a restricted house
+                    return false;  // The request must be denied
                 }
-                result.add(canBeFriends ? "approved" : "denied");  // Add the result of the request to the list
-            } else {  // If houses are not in the same group, the request can be approved
-                result.add("approved");
-                ds.union(houseA, houseB);  // Union the two houses to connect them
             }
+            return true;
         }
-
-        return result;  // Return the list of results for all friend requests
+        // If houses are not in the same group, the request can be approved
+        ds.union(houseA, houseB);  // Union the two houses to connect them
+        return true;
     }
 
     public static void main(String[] args) {
@@ -105,5 +245,8 @@ public class HouseFriendship {
         int[][] restrictions2 = {{0, 1}, {1, 2}, {2, 3}};  // Restriction list
         int[][] requests2 = {{0, 4}, {1, 2}, {3, 1}, {3, 4}};  // Friend request list
         System.out.println(evaluateRequests(numHouses2, restrictions2, requests2)); // Output: [approved, denied, approved, denied]
+
+        // Example 2 with group-level restriction tracking
+        System.out.println(evaluateRequests(numHouses2, restrictions2, requests2, Engine.COMPONENTS)); // Output: [approved, denied, approved, denied]
     }
 }
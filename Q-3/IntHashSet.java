@@ -0,0 +1,106 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Growable open-addressing hash set of non-negative ints, without boxing.
+// Uses linear probing and backward-shift deletion, so removals leave no tombstones.
+// -1 marks an empty slot and cannot be stored.
+class IntHashSet {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int mask;
+    private int size;
+
+    IntHashSet() {
+        keys = new int[4];
+        mask = keys.length - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    boolean contains(int key) {
+        int i = hash(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    // Add 'key' and return whether it was absent
+    boolean add(int key) {
+        int i = hash(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        // Keep the load factor at most 1/2
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    // Remove 'key' and return whether it was present
+    boolean remove(int key) {
+        int i = hash(key);
+        while (keys[i] != key) {
+            if (keys[i] == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        size--;
+        // Shift later entries of the probe run back so lookups never hit a gap before their key
+        int gap = i;
+        int j = (i + 1) & mask;
+        while (keys[j] != EMPTY) {
+            int home = hash(keys[j]);
+            // The entry at j may fill the gap if its home slot is not inside (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                gap = j;
+            }
+            j = (j + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(IntConsumer action) {
+        for (int key : keys) {
+            if (key != EMPTY) {
+                action.accept(key);
+            }
+        }
+    }
+
+    private void grow() {
+        int[] old = keys;
+        keys = new int[old.length * 2];
+        mask = keys.length - 1;
+        Arrays.fill(keys, EMPTY);
+        for (int key : old) {
+            if (key != EMPTY) {
+                int i = hash(key);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+            }
+        }
+    }
+
+    private int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Restricted neighbours of every house in compressed sparse row form: the neighbours of house h are
+// neighbours[offsets[h] .. offsets[h + 1]). Built with a counting sort over the restriction pairs, each
+// restriction is stored once per direction, so an edge costs 8 bytes and a house's neighbours are
+// contiguous in memory. Replaces the HashMap<Integer, Set<Integer>> used by HouseFriendship.
+//
+// The index can be written to a file and mapped back read-only, so a large index is available right
+// after a restart without rebuilding it. Both forms are read through IntBuffers. A mapped index is
+// limited to 2 GiB, about 250M restrictions.
+public class RestrictionIndex {
+    private static final int MAGIC = 0x52494458;  // "RIDX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;  // magic, version, houses, neighbour count
+
+    private final int numHouses;
+    private final IntBuffer offsets;     // numHouses + 1 entries
+    private final IntBuffer neighbours;  // offsets[numHouses] entries
+
+    private RestrictionIndex(int numHouses, IntBuffer offsets, IntBuffer neighbours) {
+        this.numHouses = numHouses;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+    }
+
+    // Build the index from {houseA, houseB} restriction pairs
+    public static RestrictionIndex build(int numHouses, int[][] restrictions) {
+        // Count the neighbours of every house, then turn the counts into start offsets
+        int[] offsets = new int[numHouses + 1];
+        for (int[] restriction : restrictions) {
+            offsets[restriction[0] + 1]++;
+            offsets[restriction[1] + 1]++;
+        }
+        for (int h = 0; h < numHouses; h++) {
+            offsets[h + 1] += offsets[h];
+        }
+        // Place every neighbour at the next free slot of its house
+        int[] neighbours = new int[offsets[numHouses]];
+        int[] next = new int[numHouses];
+        System.arraycopy(offsets, 0, next, 0, numHouses);
+        for (int[] restriction : restrictions) {
+            neighbours[next[restriction[0]]++] = restriction[1];
+            neighbours[next[restriction[1]]++] = restriction[0];
+        }
+        return new RestrictionIndex(numHouses, IntBuffer.wrap(offsets), IntBuffer.wrap(neighbours));
+    }
+
+    public int houses() {
+        return numHouses;
+    }
+
+    // First position of 'house' in the neighbour list
+    public int start(int house) {
+        return offsets.get(house);
+    }
+
+    // End (exclusive) of the neighbour list of 'house'
+    public int end(int house) {
+        return offsets.get(house + 1);
+    }
+
+    public int neighbourAt(int position) {
+        return neighbours.get(position);
+    }
+
+    // Write the index to 'file' in the format read by map()
+    public void write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes());
+            writeTo(out);
+            out.force();
+        }
+    }
+
+    // Map an index written by write(); the file must not change while the index is used
+    public static RestrictionIndex map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readFrom(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Size of the serialized index in bytes
+    long bytes() {
+        return HEADER_BYTES + ((long) numHouses + 1 + neighbours.limit()) * Integer.BYTES;
+    }
+
+    // Serialize at the position of 'out' and advance it past the index
+    void writeTo(ByteBuffer out) {
+        out.putInt(MAGIC).putInt(VERSION).putInt(numHouses).putInt(neighbours.limit());
+        IntBuffer ints = out.asIntBuffer();
+        ints.put(offsets.duplicate().clear());
+        ints.put(neighbours.duplicate().clear());
+        out.position(out.position() + ints.position() * Integer.BYTES);
+    }
+
+    // Read an index at the position of 'in' without copying it, and advance past it
+    static RestrictionIndex readFrom(ByteBuffer in) throws IOException {
+        if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC) {
+            throw new IOException("Not a restriction index");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported restriction index version " + version);
+        }
+        int numHouses = in.getInt();
+        int count = in.getInt();
+        if (numHouses < 0 || count < 0 || in.remaining() < ((long) numHouses + 1 + count) * Integer.BYTES) {
+            throw new IOException("Truncated restriction index");
+        }
+        IntBuffer ints = in.asIntBuffer();
+        IntBuffer offsets = ints.duplicate().limit(numHouses + 1).slice();
+        IntBuffer neighbours = ints.duplicate().position(numHouses + 1).limit(numHouses + 1 + count).slice();
+        in.position(in.position() + (numHouses + 1 + count) * Integer.BYTES);
+        return new RestrictionIndex(numHouses, offsets, neighbours);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[][] restrictions = {{0, 1}, {1, 2}, {2, 3}};
+        RestrictionIndex index = build(4, restrictions);
+        for (int i = index.start(1); i < index.end(1); i++) {
+            System.out.print(index.neighbourAt(i) + " ");
+        }
+        System.out.println(); // Output: 0 2
+
+        Path file = Files.createTempFile("restrictions", ".idx");
+        try {
+            index.write(file);
+            RestrictionIndex mapped = map(file);
+            System.out.println(mapped.end(3) - mapped.start(3)); // Output: 1
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
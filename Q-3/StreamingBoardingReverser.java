@@ -0,0 +1,215 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Streaming version of BusBoardingOptimization.optimizeBoarding for passengers arriving one at a time,
+// e.g. from a gate scanner. Passengers are buffered in a reusable ring of exactly 'interval' ints; a
+// full group is emitted reversed and the partial group left at the end of the stream is emitted in its
+// original order. Memory is O(interval) and nothing is allocated per passenger.
+//
+// The same operator is offered as an IntConsumer (push), a PrimitiveIterator adapter (pull), a
+// Flow.Processor and a channel stage over big-endian ints.
+public class StreamingBoardingReverser implements IntConsumer {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private final int[] group;          // Passengers of the current, not yet complete group
+    private int count;                  // Passengers buffered in 'group'
+    private final IntConsumer downstream;
+
+    public StreamingBoardingReverser(int interval, IntConsumer downstream) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        this.group = new int[interval];
+        this.downstream = downstream;
+    }
+
+    // Add the next passenger; a completed group is passed downstream reversed
+    @Override
+    public void accept(int passenger) {
+        group[count++] = passenger;
+        if (count == group.length) {
+            for (int i = count - 1; i >= 0; i--) {
+                downstream.accept(group[i]);
+            }
+            count = 0;
+        }
+    }
+
+    // End of stream: pass the partial last group downstream unchanged
+    public void finish() {
+        for (int i = 0; i < count; i++) {
+            downstream.accept(group[i]);
+        }
+        count = 0;
+    }
+
+    // Pull-based adapter: the reordered sequence of 'passengers'
+    public static PrimitiveIterator.OfInt reverse(PrimitiveIterator.OfInt passengers, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        return new PrimitiveIterator.OfInt() {
+            private final int[] group = new int[interval];
+            private int size;          // Passengers read into 'group'
+            private int emitted;       // Passengers of 'group' already returned
+            private boolean reversed;  // Whether 'group' is a full group
+
+            @Override
+            public boolean hasNext() {
+                if (emitted < size) {
+                    return true;
+                }
+                size = 0;
+                emitted = 0;
+                while (size < group.length && passengers.hasNext()) {
+                    group[size++] = passengers.nextInt();
+                }
+                reversed = size == group.length;
+                return size > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int i = emitted++;
+                return group[reversed ? size - 1 - i : i];
+            }
+        };
+    }
+
+    // Reorder the big-endian ints read from 'in' into 'out', 'chunkSize' bytes at a time.
+    // A trailing partial int is ignored. Returns the number of passengers written.
+    public static long reverse(ReadableByteChannel in, WritableByteChannel out, int interval, int chunkSize)
+            throws IOException {
+        ByteBuffer input = ByteBuffer.allocateDirect(Math.max(Integer.BYTES, chunkSize));
+        ByteBuffer output = ByteBuffer.allocateDirect(Math.max(Integer.BYTES, chunkSize));
+        long[] written = new long[1];
+        StreamingBoardingReverser reverser = new StreamingBoardingReverser(interval, passenger -> {
+            if (output.remaining() < Integer.BYTES) {
+                flush(output, out);
+            }
+            output.putInt(passenger);
+            written[0]++;
+        });
+        try {
+            while (in.read(input) != -1) {
+                input.flip();
+                while (input.remaining() >= Integer.BYTES) {
+                    reverser.accept(input.getInt());
+                }
+                input.compact(); // Keep a partial int for the next read
+            }
+            reverser.finish();
+            flush(output, out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return written[0];
+    }
+
+    public static long reverse(ReadableByteChannel in, WritableByteChannel out, int interval) throws IOException {
+        return reverse(in, out, interval, DEFAULT_CHUNK_SIZE);
+    }
+
+    private static void flush(ByteBuffer buffer, WritableByteChannel out) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    // Reactive stage: subscribes to passenger IDs and publishes them in boarding order.
+    // Flow carries boxed Integers, so only the buffering itself is allocation free here.
+    public static class Processor extends SubmissionPublisher<Integer> implements Flow.Processor<Integer, Integer> {
+        private final StreamingBoardingReverser reverser;
+        private Flow.Subscription subscription;
+
+        public Processor(int interval) {
+            this.reverser = new StreamingBoardingReverser(interval, this::submit);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(Integer passenger) {
+            // submit() blocks while subscribers are saturated, which holds back the next request
+            reverser.accept(passenger);
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            closeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            reverser.finish();
+            close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Push
+        StringBuilder pushed = new StringBuilder();
+        StreamingBoardingReverser reverser = new StreamingBoardingReverser(2, p -> pushed.append(p).append(' '));
+        IntStream.rangeClosed(1, 5).forEach(reverser);
+        reverser.finish();
+        System.out.println(pushed.toString().trim()); // Output: 2 1 4 3 5
+
+        // Pull
+        PrimitiveIterator.OfInt pulled = reverse(IntStream.rangeClosed(1, 5).iterator(), 3);
+        StringBuilder order = new StringBuilder();
+        pulled.forEachRemaining((int p) -> order.append(p).append(' '));
+        System.out.println(order.toString().trim()); // Output: 3 2 1 4 5
+
+        // Channel
+        ByteBuffer encoded = ByteBuffer.allocate(5 * Integer.BYTES);
+        IntStream.rangeClosed(1, 5).forEach(encoded::putInt);
+        ByteArrayOutputStream reordered = new ByteArrayOutputStream();
+        reverse(Channels.newChannel(new ByteArrayInputStream(encoded.array())), Channels.newChannel(reordered), 2, 6);
+        ByteBuffer decoded = ByteBuffer.wrap(reordered.toByteArray());
+        List<Integer> fromChannel = new ArrayList<>();
+        while (decoded.hasRemaining()) {
+            fromChannel.add(decoded.getInt());
+        }
+        System.out.println(fromChannel); // Output: [2, 1, 4, 3, 5]
+
+        // Reactive
+        List<Integer> published = new ArrayList<>();
+        Processor processor = new Processor(3);
+        CompletableFuture<Void> done = processor.consume(published::add);
+        try (SubmissionPublisher<Integer> gate = new SubmissionPublisher<>()) {
+            gate.subscribe(processor);
+            IntStream.rangeClosed(1, 5).forEach(gate::submit);
+        }
+        done.get(); // Completes once the processor has published the tail and closed
+        System.out.println(published); // Output: [3, 2, 1, 4, 5]
+    }
+}